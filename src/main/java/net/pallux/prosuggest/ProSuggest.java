@@ -7,27 +7,35 @@ import net.pallux.prosuggest.listeners.GuiListener;
 import net.pallux.prosuggest.managers.ConfigManager;
 import net.pallux.prosuggest.managers.SuggestionManager;
 import net.pallux.prosuggest.managers.GuiManager;
+import net.pallux.prosuggest.storage.IoExecutor;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 public class ProSuggest extends JavaPlugin {
 
     private static ProSuggest instance;
     private ConfigManager configManager;
+    private IoExecutor ioExecutor;
     private SuggestionManager suggestionManager;
     private GuiManager guiManager;
     private ChatListener chatListener;
+    private GuiListener guiListener;
 
     @Override
     public void onEnable() {
         instance = this;
 
-        // Initialize managers
+        // Load configurations; everything else depends on them, so this is the one blocking read
         this.configManager = new ConfigManager(this);
+        configManager.loadConfigs();
+        this.ioExecutor = new IoExecutor(configManager.isVirtualThreadIo());
+
+        // Initialize managers
         this.suggestionManager = new SuggestionManager(this);
         this.guiManager = new GuiManager(this);
 
-        // Load configurations
-        configManager.loadConfigs();
         suggestionManager.loadSuggestions();
 
         // Register commands
@@ -41,9 +49,18 @@ public class ProSuggest extends JavaPlugin {
 
     @Override
     public void onDisable() {
-        // Save suggestions
+        // Flush pending suggestion writes
         if (suggestionManager != null) {
-            suggestionManager.saveSuggestions();
+            suggestionManager.shutdown();
+        }
+
+        // Give queued disk work a bounded time to finish
+        if (ioExecutor != null) {
+            long timeout = configManager.getIoShutdownTimeoutSeconds();
+            if (!ioExecutor.drain(timeout, TimeUnit.SECONDS)) {
+                getLogger().severe("Timed out after " + timeout + "s waiting for suggestions to be saved! "
+                        + ioExecutor.getQueuedCount() + " disk tasks did not finish.");
+            }
         }
 
         getLogger().info("ProSuggest has been disabled!");
@@ -56,13 +73,22 @@ public class ProSuggest extends JavaPlugin {
 
     private void registerListeners() {
         this.chatListener = new ChatListener(this);
-        getServer().getPluginManager().registerEvents(new GuiListener(this), this);
+        this.guiListener = new GuiListener(this);
+        getServer().getPluginManager().registerEvents(guiListener, this);
         getServer().getPluginManager().registerEvents(chatListener, this);
     }
 
-    public void reload() {
-        configManager.loadConfigs();
-        suggestionManager.loadSuggestions();
+    /**
+     * Re-reads the configuration and suggestions without blocking the main thread. Pending
+     * changes are saved to the current store before the new one is loaded.
+     *
+     * @return completes on the main thread once suggestions are usable again
+     */
+    public CompletableFuture<Void> reload() {
+        return configManager.reloadAsync().thenCompose(reloaded -> {
+            guiListener.reloadClickLimits();
+            return suggestionManager.loadSuggestions();
+        });
     }
 
     // Getters
@@ -74,6 +100,10 @@ public class ProSuggest extends JavaPlugin {
         return configManager;
     }
 
+    public IoExecutor getIoExecutor() {
+        return ioExecutor;
+    }
+
     public SuggestionManager getSuggestionManager() {
         return suggestionManager;
     }
@@ -85,4 +115,8 @@ public class ProSuggest extends JavaPlugin {
     public ChatListener getChatListener() {
         return chatListener;
     }
+
+    public GuiListener getGuiListener() {
+        return guiListener;
+    }
 }
\ No newline at end of file
@@ -1,13 +1,34 @@
 package net.pallux.prosuggest.commands;
 
 import net.pallux.prosuggest.ProSuggest;
+import net.pallux.prosuggest.managers.SuggestionManager;
+import net.pallux.prosuggest.managers.GuiSessionStore;
+import net.pallux.prosuggest.managers.VoteQueue;
+import net.pallux.prosuggest.models.PlayerDictionary;
+import net.pallux.prosuggest.models.Suggestion;
+import net.pallux.prosuggest.models.SuggestionFilter;
+import net.pallux.prosuggest.storage.FlushMetrics;
+import net.pallux.prosuggest.storage.WriteBehindFlusher;
+import net.pallux.prosuggest.util.ClickRateLimiter;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
 public class PsAdminCommand implements CommandExecutor {
 
+    private static final int FIND_PREVIEW_SIZE = 5;
+    private static final int VOTE_HISTORY_PREVIEW_SIZE = 10;
+
     private final ProSuggest plugin;
 
     public PsAdminCommand(ProSuggest plugin) {
@@ -29,8 +50,222 @@ public class PsAdminCommand implements CommandExecutor {
             return true;
         }
 
+        if (args.length > 0 && args[0].equalsIgnoreCase("stats")) {
+            sendStats(player);
+            return true;
+        }
+
+        if (!plugin.getSuggestionManager().isLoaded()) {
+            player.sendMessage(plugin.getConfigManager().getMessage("still-loading"));
+            return true;
+        }
+
+        if (args.length > 0 && args[0].equalsIgnoreCase("find")) {
+            find(player, args);
+            return true;
+        }
+
+        if (args.length > 0 && args[0].equalsIgnoreCase("votes")) {
+            showVotes(player, args);
+            return true;
+        }
+
         // Open admin GUI
         plugin.getGuiManager().openAdminGui(player, 1);
         return true;
     }
-}
\ No newline at end of file
+
+    private void sendStats(Player player) {
+        WriteBehindFlusher writeBehind = plugin.getSuggestionManager().getWriteBehind();
+        FlushMetrics metrics = writeBehind.getMetrics();
+
+        player.sendMessage(plugin.getConfigManager().colorize("&6&l=== ProSuggest Stats ==="));
+        player.sendMessage(plugin.getConfigManager().colorize("&7Suggestions: &f"
+                + plugin.getSuggestionManager().getTotalSuggestions()));
+        long votes = 0;
+        long voteBytes = 0;
+        for (Suggestion suggestion : plugin.getSuggestionManager().getAllSuggestions()) {
+            votes += suggestion.getUpvoteCount() + suggestion.getDownvoteCount();
+            voteBytes += suggestion.getVoteMemoryFootprint();
+        }
+        VoteQueue voteQueue = plugin.getSuggestionManager().getVoteQueue();
+        player.sendMessage(plugin.getConfigManager().colorize("&7Vote clicks: &f" + voteQueue.getClicksQueued()
+                + " &7(" + voteQueue.getVotesApplied() + " applied after coalescing)"));
+        PlayerDictionary players = PlayerDictionary.getInstance();
+        player.sendMessage(plugin.getConfigManager().colorize("&7Votes: &f" + votes
+                + " &7(~" + (voteBytes / 1024) + " KB in vote bitmaps)"));
+        player.sendMessage(plugin.getConfigManager().colorize("&7Known voters: &f" + players.size()
+                + " &7(~" + (players.getMemoryFootprint() / 1024) + " KB dictionary)"));
+        player.sendMessage(plugin.getConfigManager().colorize("&7Search index: &f"
+                + plugin.getSuggestionManager().getSearchIndex().getTermCount() + " &7terms"));
+        player.sendMessage(plugin.getConfigManager().colorize("&7Pending writes: &f"
+                + writeBehind.getPendingCount() + " &7(oldest " + writeBehind.getOldestPendingAgeMillis() + "ms)"));
+        player.sendMessage(plugin.getConfigManager().colorize("&7Flushes: &f" + metrics.getFlushCount()
+                + " &7(" + metrics.getEntriesFlushed() + " entries, last " + metrics.getLastFlushSize() + ")"));
+        player.sendMessage(plugin.getConfigManager().colorize(String.format(
+                "&7Flush latency: &f%.2fms &7last, &f%.2fms &7avg, &f%.2fms &7max",
+                metrics.getLastFlushMillis(), metrics.getAverageFlushMillis(), metrics.getMaxFlushMillis())));
+        player.sendMessage(plugin.getConfigManager().colorize("&7Storage: &f"
+                + writeBehind.getStoreDescription()));
+        player.sendMessage(plugin.getConfigManager().colorize("&7Disk tasks queued: &f"
+                + plugin.getIoExecutor().getQueuedCount()));
+        player.sendMessage(plugin.getConfigManager().colorize("&7Open chat prompts: &f"
+                + plugin.getChatListener().getActiveSessionCount()));
+        GuiSessionStore guiSessions = plugin.getGuiManager().getSessionStore();
+        player.sendMessage(plugin.getConfigManager().colorize(String.format(
+                "&7GUI sessions: &f%d &7(~%.1f KB, %d expired, %d evicted)",
+                guiSessions.size(), guiSessions.getRetainedBytes() / 1024.0,
+                guiSessions.getExpiredCount(), guiSessions.getEvictedCount())));
+        ClickRateLimiter clickLimiter = plugin.getGuiListener().getClickLimiter();
+        player.sendMessage(plugin.getConfigManager().colorize(String.format(
+                "&7GUI clicks: &f%d &7handled, &f%d &7rate-limited, &f%d &7debounced",
+                clickLimiter.getClicksAllowed(), clickLimiter.getClicksLimited(),
+                clickLimiter.getClicksDebounced())));
+        player.sendMessage(plugin.getConfigManager().colorize(String.format(
+                "&7Compactions: &f%d &7(last %.2fms)",
+                metrics.getCompactionCount(), metrics.getLastCompactionMillis())));
+    }
+
+    /**
+     * Lists suggestions matching {@code key:value} filters plus free-text words, then opens the
+     * admin GUI on them, e.g. {@code /psadmin find author:Steve newer:7 score:..-3 answered:no pvp}.
+     * {@code voter:<name>} limits the results to suggestions that player voted on.
+     */
+    private void find(Player player, String[] args) {
+        if (args.length < 2) {
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.find-usage"));
+            return;
+        }
+
+        SuggestionFilter filter = SuggestionFilter.ALL;
+        List<String> words = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            int colon = arg.indexOf(':');
+            String key = colon < 0 ? "" : arg.substring(0, colon).toLowerCase(Locale.ROOT);
+            String value = colon < 0 ? arg : arg.substring(colon + 1);
+
+            try {
+                switch (key) {
+                    case "author":
+                    case "voter":
+                        UUID uuid = resolvePlayer(value);
+                        if (uuid == null) {
+                            player.sendMessage(plugin.getConfigManager().getMessage("admin.find-unknown-player",
+                                    "%player%", value));
+                            return;
+                        }
+                        filter = key.equals("author") ? filter.withAuthor(uuid) : filter.withVoter(uuid);
+                        break;
+                    case "newer":
+                        filter = filter.withCreatedAfter(LocalDateTime.now().minusDays(Long.parseLong(value)));
+                        break;
+                    case "older":
+                        filter = filter.withCreatedBefore(LocalDateTime.now().minusDays(Long.parseLong(value)));
+                        break;
+                    case "score":
+                        filter = parseScore(filter, value);
+                        break;
+                    case "answered":
+                        if (!value.equalsIgnoreCase("yes") && !value.equalsIgnoreCase("no")) {
+                            throw new IllegalArgumentException(value);
+                        }
+                        filter = filter.withAnswered(value.equalsIgnoreCase("yes"));
+                        break;
+                    default:
+                        words.add(arg);
+                }
+            } catch (IllegalArgumentException e) {
+                player.sendMessage(plugin.getConfigManager().getMessage("admin.find-invalid", "%filter%", arg));
+                return;
+            }
+        }
+        if (!words.isEmpty()) {
+            filter = filter.withText(String.join(" ", words));
+        }
+
+        SuggestionManager manager = plugin.getSuggestionManager();
+        List<Suggestion> matches = manager.findSuggestions(filter, SuggestionManager.SortType.OLDEST);
+        player.sendMessage(plugin.getConfigManager().getMessage("admin.find-results",
+                "%count%", String.valueOf(matches.size()), "%plan%", manager.describeQueryPlan(filter)));
+        for (int i = 0; i < Math.min(FIND_PREVIEW_SIZE, matches.size()); i++) {
+            Suggestion suggestion = matches.get(i);
+            player.sendMessage(plugin.getConfigManager().colorize("&7" + suggestion.getDisplayId() + " &f"
+                    + suggestion.getTitle() + " &7by " + suggestion.getAuthorName() + " (" + suggestion.getScore() + ")"));
+        }
+
+        if (!matches.isEmpty()) {
+            plugin.getGuiManager().openAdminGui(player, 1, filter);
+        }
+    }
+
+    /**
+     * A player's voting history, or with {@code erase} removes all of their votes.
+     */
+    private void showVotes(Player player, String[] args) {
+        if (args.length < 2) {
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.votes-usage"));
+            return;
+        }
+
+        UUID target = resolvePlayer(args[1]);
+        if (target == null) {
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.find-unknown-player",
+                    "%player%", args[1]));
+            return;
+        }
+
+        SuggestionManager manager = plugin.getSuggestionManager();
+        if (args.length > 2 && args[2].equalsIgnoreCase("erase")) {
+            int erased = manager.eraseVotes(target);
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.votes-erased",
+                    "%player%", args[1], "%count%", String.valueOf(erased)));
+            return;
+        }
+
+        Map<Suggestion, Suggestion.VoteType> votes = manager.getVotesByPlayer(target);
+        player.sendMessage(plugin.getConfigManager().getMessage("admin.votes-header",
+                "%player%", args[1], "%count%", String.valueOf(votes.size())));
+        int shown = 0;
+        for (Map.Entry<Suggestion, Suggestion.VoteType> vote : votes.entrySet()) {
+            if (shown++ == VOTE_HISTORY_PREVIEW_SIZE) {
+                player.sendMessage(plugin.getConfigManager().colorize("&7... and "
+                        + (votes.size() - VOTE_HISTORY_PREVIEW_SIZE) + " more"));
+                break;
+            }
+            Suggestion suggestion = vote.getKey();
+            String arrow = vote.getValue() == Suggestion.VoteType.UPVOTE ? "&a▲" : "&c▼";
+            player.sendMessage(plugin.getConfigManager().colorize(arrow + " &7" + suggestion.getDisplayId()
+                    + " &f" + suggestion.getTitle()));
+        }
+    }
+
+    // Accepts N, <N, >N, min..max, ..max and min.. with inclusive bounds
+    private SuggestionFilter parseScore(SuggestionFilter filter, String value) {
+        int min = Integer.MIN_VALUE;
+        int max = Integer.MAX_VALUE;
+        int range = value.indexOf("..");
+        if (range >= 0) {
+            String from = value.substring(0, range);
+            String to = value.substring(range + 2);
+            if (!from.isEmpty()) min = Integer.parseInt(from);
+            if (!to.isEmpty()) max = Integer.parseInt(to);
+        } else if (value.startsWith("<")) {
+            max = Integer.parseInt(value.substring(1)) - 1;
+        } else if (value.startsWith(">")) {
+            min = Integer.parseInt(value.substring(1)) + 1;
+        } else {
+            min = max = Integer.parseInt(value);
+        }
+        if (min > max) throw new IllegalArgumentException(value);
+        return filter.withScoreRange(min, max);
+    }
+
+    private UUID resolvePlayer(String name) {
+        Player online = Bukkit.getPlayerExact(name);
+        if (online != null) return online.getUniqueId();
+
+        OfflinePlayer offline = Bukkit.getOfflinePlayerIfCached(name);
+        return offline != null ? offline.getUniqueId() : null;
+    }
+}
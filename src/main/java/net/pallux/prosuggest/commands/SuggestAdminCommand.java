@@ -1,6 +1,7 @@
 package net.pallux.prosuggest.commands;
 
 import net.pallux.prosuggest.ProSuggest;
+import net.pallux.prosuggest.models.Suggestion;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -29,6 +30,11 @@ public class SuggestAdminCommand implements CommandExecutor {
             return true;
         }
 
+        if (!plugin.getSuggestionManager().isLoaded()) {
+            player.sendMessage(plugin.getConfigManager().getMessage("still-loading"));
+            return true;
+        }
+
         // Handle subcommands
         if (args.length > 0) {
             String subcommand = args[0].toLowerCase();
@@ -42,7 +48,7 @@ public class SuggestAdminCommand implements CommandExecutor {
                     }
 
                     String deleteId = args[1];
-                    if (plugin.getSuggestionManager().deleteSuggestion(deleteId)) {
+                    if (plugin.getSuggestionManager().deleteSuggestion(Suggestion.parseId(deleteId))) {
                         player.sendMessage(plugin.getConfigManager().getMessage("admin.deleted",
                                 "%id%", deleteId));
                     } else {
@@ -65,7 +71,8 @@ public class SuggestAdminCommand implements CommandExecutor {
                         response.append(args[i]).append(" ");
                     }
 
-                    if (plugin.getSuggestionManager().addAdminResponse(responseId, response.toString().trim())) {
+                    if (plugin.getSuggestionManager().addAdminResponse(Suggestion.parseId(responseId),
+                            response.toString().trim())) {
                         player.sendMessage(plugin.getConfigManager().getMessage("admin.response-added",
                                 "%id%", responseId));
                     } else {
@@ -1,11 +1,14 @@
 package net.pallux.prosuggest.commands;
 
 import net.pallux.prosuggest.ProSuggest;
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.Arrays;
+
 public class SuggestCommand implements CommandExecutor {
 
     private final ProSuggest plugin;
@@ -36,8 +39,17 @@ public class SuggestCommand implements CommandExecutor {
             switch (subcommand) {
                 case "reload":
                     if (player.hasPermission("prosuggest.admin")) {
-                        plugin.reload();
-                        player.sendMessage(plugin.getConfigManager().getMessage("reload-success"));
+                        // Files are read in the background; report back on the main thread
+                        plugin.reload().whenComplete((reloaded, error) ->
+                                Bukkit.getScheduler().runTask(plugin, () -> {
+                                    if (error != null) {
+                                        plugin.getLogger().severe("Could not reload ProSuggest!");
+                                        error.printStackTrace();
+                                        player.sendMessage(plugin.getConfigManager().getMessage("reload-failed"));
+                                    } else {
+                                        player.sendMessage(plugin.getConfigManager().getMessage("reload-success"));
+                                    }
+                                }));
                     } else {
                         player.sendMessage(plugin.getConfigManager().getMessage("no-permission"));
                     }
@@ -47,12 +59,28 @@ public class SuggestCommand implements CommandExecutor {
                     sendHelpMessage(player);
                     return true;
 
+                case "search":
+                    if (!plugin.getSuggestionManager().isLoaded()) {
+                        player.sendMessage(plugin.getConfigManager().getMessage("still-loading"));
+                    } else if (args.length < 2) {
+                        player.sendMessage(plugin.getConfigManager().getMessage("search.usage"));
+                    } else {
+                        plugin.getGuiManager().openSearchGui(player,
+                                String.join(" ", Arrays.copyOfRange(args, 1, args.length)));
+                    }
+                    return true;
+
                 default:
                     // Open main GUI for any other argument
                     break;
             }
         }
 
+        if (!plugin.getSuggestionManager().isLoaded()) {
+            player.sendMessage(plugin.getConfigManager().getMessage("still-loading"));
+            return true;
+        }
+
         // Open main suggestion GUI
         plugin.getGuiManager().openMainGui(player);
         return true;
@@ -61,6 +89,7 @@ public class SuggestCommand implements CommandExecutor {
     private void sendHelpMessage(Player player) {
         player.sendMessage(plugin.getConfigManager().colorize("&6&l=== ProSuggest Help ==="));
         player.sendMessage(plugin.getConfigManager().colorize("&e/suggest &7- Open suggestions GUI"));
+        player.sendMessage(plugin.getConfigManager().colorize("&e/suggest search <terms> &7- Search suggestions"));
         player.sendMessage(plugin.getConfigManager().colorize("&e/suggest help &7- Show this help"));
 
         if (player.hasPermission("prosuggest.admin")) {
@@ -2,6 +2,10 @@ package net.pallux.prosuggest.listeners;
 
 import net.pallux.prosuggest.ProSuggest;
 import net.pallux.prosuggest.models.Suggestion;
+import net.pallux.prosuggest.search.DuplicateIndex;
+import net.pallux.prosuggest.util.IntSortedSet;
+import net.pallux.prosuggest.util.TimingWheel;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -11,42 +15,98 @@ import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.scheduler.BukkitRunnable;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ChatListener implements Listener {
 
+    // The timeout wheel ticks once per second; 512 slots fit the default 5 minutes in one turn
+    private static final long TIMEOUT_TICK_INTERVAL = 20L;
+    private static final int TIMEOUT_WHEEL_SLOTS = 512;
+
     private final ProSuggest plugin;
     private final Map<UUID, ChatSession> chatSessions;
+    // One shared clock for every session's timeout instead of a scheduler task each
+    private final TimingWheel<UUID> timeouts;
 
     public ChatListener(ProSuggest plugin) {
         this.plugin = plugin;
-        this.chatSessions = new HashMap<>();
+        // Written on the main thread, read on chat threads
+        this.chatSessions = new ConcurrentHashMap<>();
+        this.timeouts = new TimingWheel<>(TIMEOUT_WHEEL_SLOTS);
+        Bukkit.getScheduler().runTaskTimer(plugin, () -> timeouts.advance(this::expireSession),
+                TIMEOUT_TICK_INTERVAL, TIMEOUT_TICK_INTERVAL);
     }
 
+    /**
+     * Chat arrives on its own threads, but suggestions may only be touched on the main thread.
+     * The input is therefore only claimed here and handled on the next tick, in the order it was
+     * sent.
+     */
     @EventHandler(priority = EventPriority.LOWEST)
     public void onPlayerChat(AsyncPlayerChatEvent event) {
         Player player = event.getPlayer();
-        ChatSession session = chatSessions.get(player.getUniqueId());
-
-        if (session == null) return;
+        if (!chatSessions.containsKey(player.getUniqueId())) return;
 
         event.setCancelled(true);
         String message = event.getMessage();
 
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                handleInput(player, message);
+            }
+        }.runTask(plugin);
+    }
+
+    private void startSession(Player player, ChatSession session) {
+        chatSessions.put(player.getUniqueId(), session);
+        resetTimeout(player);
+    }
+
+    // Gives the player the full timeout again after each answer (wheel ticks are seconds)
+    private void resetTimeout(Player player) {
+        timeouts.schedule(player.getUniqueId(), plugin.getConfigManager().getChatInputTimeoutSeconds());
+    }
+
+    private void endSession(UUID playerUUID) {
+        chatSessions.remove(playerUUID);
+        timeouts.cancel(playerUUID);
+    }
+
+    private void expireSession(UUID playerUUID) {
+        if (chatSessions.remove(playerUUID) == null) return;
+
+        Player player = Bukkit.getPlayer(playerUUID);
+        if (player != null) {
+            player.sendMessage(plugin.getConfigManager().getMessage("create.timeout"));
+        }
+    }
+
+    public int getActiveSessionCount() {
+        return timeouts.size();
+    }
+
+    private void handleInput(Player player, String message) {
+        // The session may have ended while the input was queued
+        ChatSession session = chatSessions.get(player.getUniqueId());
+        if (session == null) return;
+
         // Handle cancellation
         if (message.equalsIgnoreCase("cancel") || message.equalsIgnoreCase("exit")) {
-            chatSessions.remove(player.getUniqueId());
+            endSession(player.getUniqueId());
             player.sendMessage(plugin.getConfigManager().getMessage("create.cancelled"));
 
             // Reopen GUI after cancellation
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    plugin.getGuiManager().openMainGui(player);
-                }
-            }.runTask(plugin);
+            plugin.getGuiManager().openMainGui(player);
+            return;
+        }
+
+        // Keep the session so the player can simply send the input again
+        if (!plugin.getSuggestionManager().isLoaded()) {
+            player.sendMessage(plugin.getConfigManager().getMessage("still-loading"));
             return;
         }
 
@@ -67,6 +127,12 @@ public class ChatListener implements Listener {
             case ADMIN_RESPONSE:
                 handleAdminResponseInput(player, session, message);
                 break;
+            case SEARCH:
+                handleSearchInput(player, message);
+                break;
+            case CONFIRM_DUPLICATE:
+                handleDuplicateInput(player, session, message);
+                break;
         }
     }
 
@@ -88,7 +154,7 @@ public class ChatListener implements Listener {
         player.sendMessage(plugin.getConfigManager().getMessage("create.description-prompt"));
 
         // Reset timeout
-        session.resetTimeout();
+        resetTimeout(player);
     }
 
     private void handleDescriptionInput(Player player, ChatSession session, String description) {
@@ -100,15 +166,84 @@ public class ChatListener implements Listener {
             return;
         }
 
-        // Create the suggestion
-        String suggestionId = plugin.getSuggestionManager().createSuggestion(
-                session.getTitle(), description, player.getUniqueId(), player.getName());
+        // Offer to upvote an existing suggestion if this one looks like a repeat
+        List<DuplicateIndex.Match> duplicates = plugin.getSuggestionManager()
+                .findDuplicates(session.getTitle(), description);
+        if (!duplicates.isEmpty()) {
+            session.setDescription(description);
+            session.setSessionType(ChatSessionType.CONFIRM_DUPLICATE);
+
+            player.sendMessage(plugin.getConfigManager().getMessage("create.duplicates-found"));
+            for (DuplicateIndex.Match match : duplicates) {
+                Suggestion duplicate = plugin.getSuggestionManager().getSuggestion(match.getId());
+                if (duplicate == null) continue;
+
+                session.getDuplicateIds().add(match.getId());
+                player.sendMessage(plugin.getConfigManager().getMessage("create.duplicate-entry",
+                        "%id%", duplicate.getDisplayId(),
+                        "%title%", duplicate.getTitle(),
+                        "%similarity%", String.valueOf(Math.round(match.getSimilarity() * 100)),
+                        "%upvotes%", String.valueOf(plugin.getSuggestionManager().getUpvoteCount(duplicate))));
+            }
+            player.sendMessage(plugin.getConfigManager().getMessage("create.duplicate-prompt"));
+
+            resetTimeout(player);
+            return;
+        }
+
+        createSuggestion(player, session.getTitle(), description);
+    }
 
-        chatSessions.remove(player.getUniqueId());
+    private void handleDuplicateInput(Player player, ChatSession session, String input) {
+        if (input.equalsIgnoreCase("post")) {
+            createSuggestion(player, session.getTitle(), session.getDescription());
+            return;
+        }
+
+        int suggestionId = Suggestion.parseId(input.trim());
+        if (!session.getDuplicateIds().contains(suggestionId)) {
+            player.sendMessage(plugin.getConfigManager().getMessage("create.duplicate-prompt"));
+            return;
+        }
+
+        endSession(player.getUniqueId());
+        upvoteInstead(player, suggestionId);
+    }
 
-        if (suggestionId != null) {
+    private void upvoteInstead(Player player, int suggestionId) {
+        Suggestion suggestion = plugin.getSuggestionManager().getSuggestion(suggestionId);
+        if (suggestion == null) {
+            player.sendMessage(plugin.getConfigManager().getMessage("delete.not-found",
+                    "%id%", Suggestion.formatId(suggestionId)));
+            return;
+        }
+
+        if (!player.hasPermission("prosuggest.vote")) {
+            player.sendMessage(plugin.getConfigManager().getMessage("no-permission"));
+        } else if (plugin.getSuggestionManager().getVoteType(suggestion, player.getUniqueId())
+                == Suggestion.VoteType.UPVOTE) {
+            // Voting again would take the upvote back
+            player.sendMessage(plugin.getConfigManager().getMessage("vote.already-voted"));
+        } else if (plugin.getSuggestionManager().vote(suggestionId, player.getUniqueId(),
+                Suggestion.VoteType.UPVOTE) == null) {
+            player.sendMessage(plugin.getConfigManager().getMessage("vote.own-suggestion"));
+        } else {
+            player.sendMessage(plugin.getConfigManager().getMessage("vote.upvoted",
+                    "%id%", suggestion.getDisplayId()));
+        }
+
+        plugin.getGuiManager().openSuggestionView(player, suggestionId);
+    }
+
+    private void createSuggestion(Player player, String title, String description) {
+        int suggestionId = plugin.getSuggestionManager().createSuggestion(
+                title, description, player.getUniqueId(), player.getName());
+
+        endSession(player.getUniqueId());
+
+        if (suggestionId > 0) {
             player.sendMessage(plugin.getConfigManager().getMessage("create.success",
-                    "%id%", suggestionId));
+                    "%id%", Suggestion.formatId(suggestionId)));
         } else {
             int max = plugin.getConfigManager().getMaxSuggestionsPerPlayer();
             player.sendMessage(plugin.getConfigManager().getMessage("create.max-reached",
@@ -116,12 +251,7 @@ public class ChatListener implements Listener {
         }
 
         // Reopen main GUI
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                plugin.getGuiManager().openMainGui(player);
-            }
-        }.runTask(plugin);
+        plugin.getGuiManager().openMainGui(player);
     }
 
     private void handleEditTitleInput(Player player, ChatSession session, String newTitle) {
@@ -140,7 +270,7 @@ public class ChatListener implements Listener {
                 "%title%", newTitle));
         player.sendMessage(plugin.getConfigManager().getMessage("create.description-prompt"));
 
-        session.resetTimeout();
+        resetTimeout(player);
     }
 
     private void handleEditDescriptionInput(Player player, ChatSession session, String newDescription) {
@@ -156,88 +286,91 @@ public class ChatListener implements Listener {
         boolean success = plugin.getSuggestionManager().editSuggestion(
                 session.getTargetId(), session.getTitle(), newDescription);
 
-        chatSessions.remove(player.getUniqueId());
+        endSession(player.getUniqueId());
 
         if (success) {
             player.sendMessage(plugin.getConfigManager().getMessage("admin.edited",
-                    "%id%", session.getTargetId()));
+                    "%id%", Suggestion.formatId(session.getTargetId())));
         } else {
             player.sendMessage(plugin.getConfigManager().getMessage("delete.not-found",
-                    "%id%", session.getTargetId()));
+                    "%id%", Suggestion.formatId(session.getTargetId())));
         }
 
         // Reopen admin GUI
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                plugin.getGuiManager().openAdminGui(player, 1);
-            }
-        }.runTask(plugin);
+        plugin.getGuiManager().openAdminGui(player, 1);
     }
 
     private void handleAdminResponseInput(Player player, ChatSession session, String response) {
         boolean success = plugin.getSuggestionManager().addAdminResponse(
                 session.getTargetId(), response);
 
-        chatSessions.remove(player.getUniqueId());
+        endSession(player.getUniqueId());
 
         if (success) {
             player.sendMessage(plugin.getConfigManager().getMessage("admin.response-added",
-                    "%id%", session.getTargetId()));
+                    "%id%", Suggestion.formatId(session.getTargetId())));
         } else {
             player.sendMessage(plugin.getConfigManager().getMessage("delete.not-found",
-                    "%id%", session.getTargetId()));
+                    "%id%", Suggestion.formatId(session.getTargetId())));
         }
 
         // Reopen admin GUI
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                plugin.getGuiManager().openAdminGui(player, 1);
-            }
-        }.runTask(plugin);
+        plugin.getGuiManager().openAdminGui(player, 1);
+    }
+
+    private void handleSearchInput(Player player, String query) {
+        endSession(player.getUniqueId());
+        plugin.getGuiManager().openSearchGui(player, query);
     }
 
     // Public methods to start different chat sessions
     public void startSuggestionCreation(Player player) {
-        ChatSession session = new ChatSession(ChatSessionType.CREATE_TITLE, plugin);
-        chatSessions.put(player.getUniqueId(), session);
+        ChatSession session = new ChatSession(ChatSessionType.CREATE_TITLE);
+        startSession(player, session);
 
         player.sendMessage(plugin.getConfigManager().getMessage("create.title-prompt"));
         player.sendMessage(plugin.getConfigManager().colorize("&7Type 'cancel' to abort."));
     }
 
-    public void startSuggestionEdit(Player player, String suggestionId) {
+    public void startSearch(Player player) {
+        ChatSession session = new ChatSession(ChatSessionType.SEARCH);
+        startSession(player, session);
+
+        player.sendMessage(plugin.getConfigManager().getMessage("search.prompt"));
+        player.sendMessage(plugin.getConfigManager().colorize("&7Type 'cancel' to abort."));
+    }
+
+    public void startSuggestionEdit(Player player, int suggestionId) {
         Suggestion suggestion = plugin.getSuggestionManager().getSuggestion(suggestionId);
         if (suggestion == null) {
             player.sendMessage(plugin.getConfigManager().getMessage("delete.not-found",
-                    "%id%", suggestionId));
+                    "%id%", Suggestion.formatId(suggestionId)));
             return;
         }
 
-        ChatSession session = new ChatSession(ChatSessionType.EDIT_TITLE, plugin);
+        ChatSession session = new ChatSession(ChatSessionType.EDIT_TITLE);
         session.setTargetId(suggestionId);
-        chatSessions.put(player.getUniqueId(), session);
+        startSession(player, session);
 
-        player.sendMessage(plugin.getConfigManager().colorize("&eEditing suggestion: &f" + suggestionId));
+        player.sendMessage(plugin.getConfigManager().colorize("&eEditing suggestion: &f" + suggestion.getDisplayId()));
         player.sendMessage(plugin.getConfigManager().colorize("&7Current title: &f" + suggestion.getTitle()));
         player.sendMessage(plugin.getConfigManager().getMessage("create.title-prompt"));
         player.sendMessage(plugin.getConfigManager().colorize("&7Type 'cancel' to abort."));
     }
 
-    public void startAdminResponse(Player player, String suggestionId) {
+    public void startAdminResponse(Player player, int suggestionId) {
         Suggestion suggestion = plugin.getSuggestionManager().getSuggestion(suggestionId);
         if (suggestion == null) {
             player.sendMessage(plugin.getConfigManager().getMessage("delete.not-found",
-                    "%id%", suggestionId));
+                    "%id%", Suggestion.formatId(suggestionId)));
             return;
         }
 
-        ChatSession session = new ChatSession(ChatSessionType.ADMIN_RESPONSE, plugin);
+        ChatSession session = new ChatSession(ChatSessionType.ADMIN_RESPONSE);
         session.setTargetId(suggestionId);
-        chatSessions.put(player.getUniqueId(), session);
+        startSession(player, session);
 
-        player.sendMessage(plugin.getConfigManager().colorize("&eAdding response to: &f" + suggestionId));
+        player.sendMessage(plugin.getConfigManager().colorize("&eAdding response to: &f" + suggestion.getDisplayId()));
         player.sendMessage(plugin.getConfigManager().colorize("&7Title: &f" + suggestion.getTitle()));
         player.sendMessage(plugin.getConfigManager().colorize("&eEnter your admin response:"));
         player.sendMessage(plugin.getConfigManager().colorize("&7Type 'cancel' to abort."));
@@ -246,13 +379,13 @@ public class ChatListener implements Listener {
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
         // Clean up any existing sessions for this player
-        chatSessions.remove(event.getPlayer().getUniqueId());
+        endSession(event.getPlayer().getUniqueId());
     }
 
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent event) {
         // Clean up sessions and GUI sessions when player leaves
-        chatSessions.remove(event.getPlayer().getUniqueId());
+        endSession(event.getPlayer().getUniqueId());
         plugin.getGuiManager().removeSession(event.getPlayer().getUniqueId());
     }
 
@@ -260,29 +393,12 @@ public class ChatListener implements Listener {
     private static class ChatSession {
         private ChatSessionType sessionType;
         private String title;
-        private String targetId; // For editing existing suggestions
-        private BukkitRunnable timeoutTask;
+        private String description; // Held while the player decides about duplicates
+        private final IntSortedSet duplicateIds = new IntSortedSet();
+        private int targetId; // For editing existing suggestions
 
-        public ChatSession(ChatSessionType sessionType, ProSuggest plugin) {
+        public ChatSession(ChatSessionType sessionType) {
             this.sessionType = sessionType;
-            startTimeout(plugin);
-        }
-
-        private void startTimeout(ProSuggest plugin) {
-            timeoutTask = new BukkitRunnable() {
-                @Override
-                public void run() {
-                    // Session timeout handling
-                    plugin.getLogger().info("Chat session timed out for a player");
-                }
-            };
-            timeoutTask.runTaskLater(plugin, 20 * 60 * 5); // 5 minute timeout
-        }
-
-        public void resetTimeout() {
-            if (timeoutTask != null && !timeoutTask.isCancelled()) {
-                timeoutTask.cancel();
-            }
         }
 
         // Getters and setters
@@ -292,11 +408,16 @@ public class ChatListener implements Listener {
         public String getTitle() { return title; }
         public void setTitle(String title) { this.title = title; }
 
-        public String getTargetId() { return targetId; }
-        public void setTargetId(String targetId) { this.targetId = targetId; }
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+
+        public IntSortedSet getDuplicateIds() { return duplicateIds; }
+
+        public int getTargetId() { return targetId; }
+        public void setTargetId(int targetId) { this.targetId = targetId; }
     }
 
     private enum ChatSessionType {
-        CREATE_TITLE, CREATE_DESCRIPTION, EDIT_TITLE, EDIT_DESCRIPTION, ADMIN_RESPONSE
+        CREATE_TITLE, CREATE_DESCRIPTION, CONFIRM_DUPLICATE, EDIT_TITLE, EDIT_DESCRIPTION, ADMIN_RESPONSE, SEARCH
     }
 }
\ No newline at end of file
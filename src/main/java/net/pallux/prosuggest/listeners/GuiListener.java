@@ -2,23 +2,41 @@ package net.pallux.prosuggest.listeners;
 
 import net.pallux.prosuggest.ProSuggest;
 import net.pallux.prosuggest.managers.GuiManager;
-import net.pallux.prosuggest.managers.SuggestionManager;
 import net.pallux.prosuggest.models.Suggestion;
+import net.pallux.prosuggest.util.ClickRateLimiter;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.ClickType;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 public class GuiListener implements Listener {
 
     private final ProSuggest plugin;
+    private final ClickRateLimiter clickLimiter;
 
     public GuiListener(ProSuggest plugin) {
         this.plugin = plugin;
+        this.clickLimiter = new ClickRateLimiter(plugin.getConfigManager().isClickLimitEnabled(),
+                plugin.getConfigManager().getClickBurst(), plugin.getConfigManager().getClicksPerSecond(),
+                plugin.getConfigManager().getClickDebounceMillis());
+    }
+
+    /**
+     * Picks up click limits changed by a reload.
+     */
+    public void reloadClickLimits() {
+        clickLimiter.configure(plugin.getConfigManager().isClickLimitEnabled(),
+                plugin.getConfigManager().getClickBurst(), plugin.getConfigManager().getClicksPerSecond(),
+                plugin.getConfigManager().getClickDebounceMillis());
+    }
+
+    public ClickRateLimiter getClickLimiter() {
+        return clickLimiter;
     }
 
     @EventHandler
@@ -32,6 +50,15 @@ public class GuiListener implements Listener {
 
         event.setCancelled(true);
 
+        // Excess clicks stop here, before any vote, save or GUI reopen
+        if (!clickLimiter.tryClick(player.getUniqueId(), event.getRawSlot())) return;
+
+        // A reload may still be loading suggestions behind an open GUI
+        if (!plugin.getSuggestionManager().isLoaded()) {
+            player.sendMessage(plugin.getConfigManager().getMessage("still-loading"));
+            return;
+        }
+
         ItemStack clickedItem = event.getCurrentItem();
         if (clickedItem == null || !clickedItem.hasItemMeta()) return;
 
@@ -50,6 +77,9 @@ public class GuiListener implements Listener {
             case MY_SUGGESTIONS:
                 handleMySuggestionsClick(player, session, slot, displayName, clickType);
                 break;
+            case MY_VOTES:
+                handleMyVotesClick(player, session, slot, displayName);
+                break;
             case VIEW_SUGGESTION:
                 handleViewSuggestionClick(player, session, slot, displayName, clickType);
                 break;
@@ -59,6 +89,9 @@ public class GuiListener implements Listener {
             case ADMIN_EDIT:
                 handleAdminEditGuiClick(player, session, slot, displayName, clickType);
                 break;
+            case SEARCH:
+                handleSearchGuiClick(player, session, slot, displayName);
+                break;
         }
     }
 
@@ -67,12 +100,12 @@ public class GuiListener implements Listener {
 
         // Check for navigation buttons
         if (displayName.contains("Previous Page")) {
-            plugin.getGuiManager().openMainGui(player, session.getCurrentPage() - 1, session.getSortType());
+            plugin.getGuiManager().openPreviousPage(player, session);
             return;
         }
 
         if (displayName.contains("Next Page")) {
-            plugin.getGuiManager().openMainGui(player, session.getCurrentPage() + 1, session.getSortType());
+            plugin.getGuiManager().openNextPage(player, session);
             return;
         }
 
@@ -95,6 +128,11 @@ public class GuiListener implements Listener {
             return;
         }
 
+        if (displayName.contains("My Votes")) {
+            plugin.getGuiManager().openMyVotesGui(player, 1);
+            return;
+        }
+
         if (displayName.contains("Delete Suggestion")) {
             plugin.getGuiManager().openMysuggestionsGui(player, 1);
             player.sendMessage(plugin.getConfigManager().colorize(
@@ -102,18 +140,67 @@ public class GuiListener implements Listener {
             return;
         }
 
+        if (displayName.contains("Search Suggestions")) {
+            player.closeInventory();
+            plugin.getChatListener().startSearch(player);
+            return;
+        }
+
         // Check for sort button
         if (displayName.contains("Sort:")) {
-            SuggestionManager.SortType newSort = session.getSortType() == SuggestionManager.SortType.RECENT
-                    ? SuggestionManager.SortType.POPULAR
-                    : SuggestionManager.SortType.RECENT;
-            plugin.getGuiManager().openMainGui(player, 1, newSort);
+            plugin.getGuiManager().openMainGui(player, 1, session.getSortType().next());
             return;
         }
 
         // Handle suggestion clicks
         if (slot < plugin.getConfigManager().getItemsPerPage()) {
-            Suggestion suggestion = session.getSuggestionAtSlot(slot);
+            Suggestion suggestion = getSuggestionAtSlot(session, slot);
+            if (suggestion != null) {
+                plugin.getGuiManager().openSuggestionView(player, suggestion.getId());
+            }
+        }
+    }
+
+    private void handleSearchGuiClick(Player player, GuiManager.GuiSession session, int slot,
+                                      String displayName) {
+
+        if (displayName.contains("Go Back")) {
+            plugin.getGuiManager().openMainGui(player);
+            return;
+        }
+
+        if (displayName.contains("Search Suggestions")) {
+            player.closeInventory();
+            plugin.getChatListener().startSearch(player);
+            return;
+        }
+
+        // Handle result clicks
+        if (slot < plugin.getConfigManager().getItemsPerPage()) {
+            Suggestion suggestion = getSuggestionAtSlot(session, slot);
+            if (suggestion != null) {
+                plugin.getGuiManager().openSuggestionView(player, suggestion.getId());
+            }
+        }
+    }
+
+    private void handleMyVotesClick(Player player, GuiManager.GuiSession session, int slot,
+                                    String displayName) {
+
+        // Check for navigation buttons
+        if (displayName.contains("Previous Page")) {
+            plugin.getGuiManager().openPreviousPage(player, session);
+            return;
+        }
+
+        if (displayName.contains("Next Page")) {
+            plugin.getGuiManager().openNextPage(player, session);
+            return;
+        }
+
+        // Handle suggestion clicks
+        if (slot < plugin.getConfigManager().getItemsPerPage()) {
+            Suggestion suggestion = getSuggestionAtSlot(session, slot);
             if (suggestion != null) {
                 plugin.getGuiManager().openSuggestionView(player, suggestion.getId());
             }
@@ -125,27 +212,27 @@ public class GuiListener implements Listener {
 
         // Check for navigation buttons
         if (displayName.contains("Previous Page")) {
-            plugin.getGuiManager().openMysuggestionsGui(player, session.getCurrentPage() - 1);
+            plugin.getGuiManager().openPreviousPage(player, session);
             return;
         }
 
         if (displayName.contains("Next Page")) {
-            plugin.getGuiManager().openMysuggestionsGui(player, session.getCurrentPage() + 1);
+            plugin.getGuiManager().openNextPage(player, session);
             return;
         }
 
         // Handle suggestion clicks for deletion
         if (slot < plugin.getConfigManager().getItemsPerPage()) {
-            Suggestion suggestion = session.getSuggestionAtSlot(slot);
+            Suggestion suggestion = getSuggestionAtSlot(session, slot);
             if (suggestion != null && suggestion.getAuthorUUID().equals(player.getUniqueId())) {
 
                 if (session.isAwaitingConfirmation() &&
-                        suggestion.getId().equals(session.getConfirmationTarget())) {
+                        suggestion.getId() == session.getConfirmationTarget()) {
 
                     // Confirm deletion
                     if (plugin.getSuggestionManager().deleteSuggestion(suggestion.getId())) {
                         player.sendMessage(plugin.getConfigManager().getMessage("delete.success",
-                                "%id%", suggestion.getId()));
+                                "%id%", suggestion.getDisplayId()));
                         plugin.getGuiManager().openMysuggestionsGui(player, session.getCurrentPage());
                     }
 
@@ -162,8 +249,8 @@ public class GuiListener implements Listener {
     private void handleViewSuggestionClick(Player player, GuiManager.GuiSession session, int slot,
                                            String displayName, ClickType clickType) {
 
-        String suggestionId = session.getViewingSuggestionId();
-        if (suggestionId == null) return;
+        int suggestionId = session.getViewingSuggestionId();
+        if (suggestionId <= 0) return;
 
         Suggestion suggestion = plugin.getSuggestionManager().getSuggestion(suggestionId);
         if (suggestion == null) return;
@@ -191,18 +278,18 @@ public class GuiListener implements Listener {
 
         // Check for navigation buttons
         if (displayName.contains("Previous Page")) {
-            plugin.getGuiManager().openAdminGui(player, session.getCurrentPage() - 1);
+            plugin.getGuiManager().openPreviousPage(player, session);
             return;
         }
 
         if (displayName.contains("Next Page")) {
-            plugin.getGuiManager().openAdminGui(player, session.getCurrentPage() + 1);
+            plugin.getGuiManager().openNextPage(player, session);
             return;
         }
 
         // Handle suggestion clicks for admin actions
         if (slot < plugin.getConfigManager().getItemsPerPage()) {
-            Suggestion suggestion = session.getSuggestionAtSlot(slot);
+            Suggestion suggestion = getSuggestionAtSlot(session, slot);
             if (suggestion != null) {
 
                 if (clickType == ClickType.LEFT) {
@@ -212,13 +299,13 @@ public class GuiListener implements Listener {
                 } else if (clickType == ClickType.RIGHT) {
                     // Delete suggestion
                     if (session.isAwaitingConfirmation() &&
-                            suggestion.getId().equals(session.getConfirmationTarget())) {
+                            suggestion.getId() == session.getConfirmationTarget()) {
 
                         // Confirm deletion
                         if (plugin.getSuggestionManager().deleteSuggestion(suggestion.getId())) {
                             player.sendMessage(plugin.getConfigManager().getMessage("admin.deleted",
-                                    "%id%", suggestion.getId()));
-                            plugin.getGuiManager().openAdminGui(player, session.getCurrentPage());
+                                    "%id%", suggestion.getDisplayId()));
+                            plugin.getGuiManager().openAdminGui(player, session.getCurrentPage(), session.getFilter());
                         }
 
                     } else {
@@ -234,8 +321,8 @@ public class GuiListener implements Listener {
 
     private void handleAdminEditGuiClick(Player player, GuiManager.GuiSession session, int slot,
                                          String displayName, ClickType clickType) {
-        String suggestionId = session.getViewingSuggestionId();
-        if (suggestionId == null) return;
+        int suggestionId = session.getViewingSuggestionId();
+        if (suggestionId <= 0) return;
 
         // Check for edit/delete buttons
         if (displayName.contains("Edit Title")) {
@@ -257,14 +344,14 @@ public class GuiListener implements Listener {
         }
 
         if (displayName.contains("Delete Suggestion")) {
-            if (session.isAwaitingConfirmation() && suggestionId.equals(session.getConfirmationTarget())) {
+            if (session.isAwaitingConfirmation() && suggestionId == session.getConfirmationTarget()) {
                 // Confirm deletion
                 if (plugin.getSuggestionManager().deleteSuggestion(suggestionId)) {
                     player.sendMessage(plugin.getConfigManager().getMessage("admin.deleted",
-                            "%id%", suggestionId));
+                            "%id%", Suggestion.formatId(suggestionId)));
                     plugin.getGuiManager().openAdminGui(player, session.getCurrentPage());
                 } else {
-                    player.sendMessage(plugin.getConfigManager().getMessage("delete.not-found", "%id%", suggestionId));
+                    player.sendMessage(plugin.getConfigManager().getMessage("delete.not-found", "%id%", Suggestion.formatId(suggestionId)));
                     player.closeInventory();
                 }
             } else {
@@ -283,6 +370,12 @@ public class GuiListener implements Listener {
         }
     }
 
+    // Sessions hold only IDs; a suggestion deleted since the page was opened gives null
+    private Suggestion getSuggestionAtSlot(GuiManager.GuiSession session, int slot) {
+        int suggestionId = session.getSuggestionIdAtSlot(slot);
+        return suggestionId == 0 ? null : plugin.getSuggestionManager().getSuggestion(suggestionId);
+    }
+
     private void handleVote(Player player, Suggestion suggestion, Suggestion.VoteType voteType) {
         // Check if player can vote
         if (!player.hasPermission("prosuggest.vote")) {
@@ -303,15 +396,15 @@ public class GuiListener implements Listener {
         switch (result) {
             case UPVOTED:
                 player.sendMessage(plugin.getConfigManager().getMessage("vote.upvoted",
-                        "%id%", suggestion.getId()));
+                        "%id%", suggestion.getDisplayId()));
                 break;
             case DOWNVOTED:
                 player.sendMessage(plugin.getConfigManager().getMessage("vote.downvoted",
-                        "%id%", suggestion.getId()));
+                        "%id%", suggestion.getDisplayId()));
                 break;
             case REMOVED:
                 player.sendMessage(plugin.getConfigManager().getMessage("vote.removed",
-                        "%id%", suggestion.getId()));
+                        "%id%", suggestion.getDisplayId()));
                 break;
         }
     }
@@ -320,16 +413,12 @@ public class GuiListener implements Listener {
     public void onInventoryClose(InventoryCloseEvent event) {
         if (!(event.getPlayer() instanceof Player)) return;
 
-        Player player = (Player) event.getPlayer();
-        GuiManager.GuiSession session = plugin.getGuiManager().getSession(player.getUniqueId());
-
-        if (session != null) {
-            // Reset confirmation state when GUI is closed
-            session.setAwaitingConfirmation(false);
-            session.setConfirmationTarget(null);
+        // Any GUI opened next stores a new session, so this one is done
+        plugin.getGuiManager().removeSession(event.getPlayer().getUniqueId());
+    }
 
-            // Don't remove session immediately - keep it for potential reopening
-            // Session will be removed when player logs out or starts a new session
-        }
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        clickLimiter.release(event.getPlayer().getUniqueId());
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,10 @@
 package net.pallux.prosuggest.managers;
 
 import net.pallux.prosuggest.ProSuggest;
+import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
@@ -10,63 +13,120 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class ConfigManager {
 
+    private static final ItemTemplate MISSING_ITEM = new ItemTemplate(Material.PAPER, "", Collections.emptyList());
+
     private final ProSuggest plugin;
     private FileConfiguration config;
     private FileConfiguration messages;
+    private Map<String, ItemTemplate> itemTemplates;
 
     public ConfigManager(ProSuggest plugin) {
         this.plugin = plugin;
     }
 
+    /**
+     * Reads both files on the calling thread. Only used while enabling, before the I/O executor
+     * exists and before anything else can run.
+     */
     public void loadConfigs() {
-        loadConfig();
-        loadMessages();
-    }
-
-    private void loadConfig() {
-        plugin.saveDefaultConfig();
-        plugin.reloadConfig();
-        config = plugin.getConfig();
-
-        // Save default config if it doesn't exist
-        File configFile = new File(plugin.getDataFolder(), "config.yml");
-        if (!configFile.exists()) {
-            plugin.saveResource("config.yml", false);
+        config = readConfig("config.yml");
+        messages = readConfig("messages.yml");
+
+        // Nothing to fall back to yet, so bad items are replaced instead of failing the enable
+        List<String> problems = new ArrayList<>();
+        itemTemplates = compileItemTemplates(config, problems);
+        for (String problem : problems) {
+            plugin.getLogger().warning(problem + ", using PAPER");
         }
     }
 
-    private void loadMessages() {
-        File messagesFile = new File(plugin.getDataFolder(), "messages.yml");
+    /**
+     * Reads both files on the I/O thread and swaps them in on the main thread, together with the
+     * item templates compiled from them, so getters never see one file reloaded and the other not.
+     * A config with invalid items is rejected as a whole and the current one stays in use.
+     */
+    public CompletableFuture<Void> reloadAsync() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        plugin.getIoExecutor().supply(() -> new FileConfiguration[] {
+                readConfig("config.yml"), readConfig("messages.yml")
+        }).whenComplete((loaded, error) -> {
+            if (!plugin.isEnabled()) return;
+
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (error != null) {
+                    done.completeExceptionally(error);
+                    return;
+                }
+
+                List<String> problems = new ArrayList<>();
+                Map<String, ItemTemplate> templates = compileItemTemplates(loaded[0], problems);
+                if (!problems.isEmpty()) {
+                    done.completeExceptionally(new IllegalArgumentException(String.join("; ", problems)));
+                    return;
+                }
+
+                config = loaded[0];
+                messages = loaded[1];
+                itemTemplates = templates;
+                done.complete(null);
+            });
+        });
+        return done;
+    }
 
-        if (!messagesFile.exists()) {
-            plugin.saveResource("messages.yml", false);
+    // The file in the data folder, created from the jar copy if missing, with the jar copy as defaults
+    private FileConfiguration readConfig(String name) {
+        File file = new File(plugin.getDataFolder(), name);
+        if (!file.exists()) {
+            plugin.saveResource(name, false);
         }
 
-        messages = YamlConfiguration.loadConfiguration(messagesFile);
+        YamlConfiguration loaded = YamlConfiguration.loadConfiguration(file);
 
         // Load defaults from jar
         try (Reader defConfigStream = new InputStreamReader(
-                plugin.getResource("messages.yml"), StandardCharsets.UTF_8)) {
-            if (defConfigStream != null) {
-                YamlConfiguration defConfig = YamlConfiguration.loadConfiguration(defConfigStream);
-                messages.setDefaults(defConfig);
-            }
+                plugin.getResource(name), StandardCharsets.UTF_8)) {
+            loaded.setDefaults(YamlConfiguration.loadConfiguration(defConfigStream));
         } catch (IOException e) {
-            plugin.getLogger().warning("Could not load default messages.yml from jar");
+            plugin.getLogger().warning("Could not load default " + name + " from jar");
         }
+        return loaded;
     }
 
-    public void saveMessages() {
+    /**
+     * Writes messages.yml on the I/O thread.
+     */
+    public CompletableFuture<Void> saveMessages() {
         File messagesFile = new File(plugin.getDataFolder(), "messages.yml");
-        try {
-            messages.save(messagesFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Could not save messages.yml!");
-            e.printStackTrace();
-        }
+        String data = messages.saveToString();
+        return plugin.getIoExecutor()
+                .run(() -> Files.writeString(messagesFile.toPath(), data, StandardCharsets.UTF_8))
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        plugin.getLogger().severe("Could not save messages.yml!");
+                        error.printStackTrace();
+                    }
+                });
+    }
+
+    public boolean isVirtualThreadIo() {
+        return config.getBoolean("storage.io.virtual-threads", false);
+    }
+
+    public long getIoShutdownTimeoutSeconds() {
+        return config.getLong("storage.io.shutdown-timeout-seconds", 30);
     }
 
     // Config getters
@@ -78,6 +138,30 @@ public class ConfigManager {
         return config.getInt("gui.items-per-page", 45);
     }
 
+    public int getMaxGuiSessions() {
+        return config.getInt("gui.sessions.max", 1000);
+    }
+
+    public long getGuiSessionIdleMillis() {
+        return config.getLong("gui.sessions.idle-minutes", 10) * 60_000L;
+    }
+
+    public boolean isClickLimitEnabled() {
+        return config.getBoolean("gui.click-limit.enabled", true);
+    }
+
+    public int getClickBurst() {
+        return config.getInt("gui.click-limit.burst", 8);
+    }
+
+    public double getClicksPerSecond() {
+        return config.getDouble("gui.click-limit.clicks-per-second", 5.0);
+    }
+
+    public long getClickDebounceMillis() {
+        return config.getLong("gui.click-limit.debounce-millis", 150);
+    }
+
     public String getGuiTitle(String type) {
         return colorize(config.getString("gui.titles." + type, "&6&lSuggestions"));
     }
@@ -90,6 +174,10 @@ public class ConfigManager {
         return config.getInt("suggestions.max-description-length", 200);
     }
 
+    public int getChatInputTimeoutSeconds() {
+        return config.getInt("suggestions.chat-input-timeout-seconds", 300);
+    }
+
     public String getDefaultSort() {
         return config.getString("suggestions.default-sort", "RECENT");
     }
@@ -102,21 +190,107 @@ public class ConfigManager {
         return config.getInt("suggestions.max-per-player", 5);
     }
 
+    public long getTrendingHalfLifeMillis() {
+        return (long) (config.getDouble("suggestions.trending.half-life-hours", 24) * 60 * 60 * 1000);
+    }
+
+    public boolean isDuplicateCheckEnabled() {
+        return config.getBoolean("suggestions.duplicate-check.enabled", true);
+    }
+
+    public double getDuplicateThreshold() {
+        return config.getDouble("suggestions.duplicate-check.threshold", 0.5);
+    }
+
+    public int getMaxDuplicatesShown() {
+        return config.getInt("suggestions.duplicate-check.max-shown", 3);
+    }
+
+    public String getStorageType() {
+        return config.getString("storage.type", "yaml");
+    }
+
+    public String getPlayerDictionaryFileName() {
+        return config.getString("storage.players-file", "players.dat");
+    }
+
+    public String getSqliteFileName() {
+        return config.getString("storage.sqlite.file-name", "suggestions.db");
+    }
+
+    public String getBinaryFileName() {
+        return config.getString("storage.binary.file-name", "suggestions.dat");
+    }
+
+    public boolean isBinaryCompressed() {
+        return config.getBoolean("storage.binary.compress", true);
+    }
+
+    public String getShardDirectory() {
+        return config.getString("storage.sharded.directory", "suggestions");
+    }
+
+    public int getShardCount() {
+        return config.getInt("storage.sharded.shards", 16);
+    }
+
     public String getStorageFileName() {
         return config.getString("storage.file-name", "suggestions.yml");
     }
 
-    // GUI Item configuration getters
-    public String getItemMaterial(String itemPath) {
-        return config.getString("gui.items." + itemPath + ".material", "PAPER");
+    public long getFlushIntervalTicks() {
+        return config.getLong("storage.write-behind.flush-interval-ticks", 100);
+    }
+
+    public int getMaxDirtyEntries() {
+        return config.getInt("storage.write-behind.max-dirty-entries", 250);
+    }
+
+    public int getJournalCompactThreshold() {
+        return config.getInt("storage.journal.compact-threshold", 10000);
+    }
+
+    public boolean isJournalSyncWrites() {
+        return config.getBoolean("storage.journal.sync-writes", false);
     }
 
-    public String getItemName(String itemPath) {
-        return colorize(config.getString("gui.items." + itemPath + ".name", ""));
+    // GUI Item configuration getters
+
+    /**
+     * The compiled item from gui.items, or a blank paper item if there is no such item.
+     */
+    public ItemTemplate getItemTemplate(String itemPath) {
+        ItemTemplate template = itemTemplates.get(itemPath);
+        return template != null ? template : MISSING_ITEM;
     }
 
-    public String getItemLore(String itemPath) {
-        return String.join("\n", config.getStringList("gui.items." + itemPath + ".lore"));
+    // One template per item in gui.items, including items only the jar defaults have
+    private Map<String, ItemTemplate> compileItemTemplates(FileConfiguration source, List<String> problems) {
+        Set<String> keys = new LinkedHashSet<>();
+        ConfigurationSection items = source.getConfigurationSection("gui.items");
+        if (items != null) keys.addAll(items.getKeys(false));
+        if (source.getDefaults() != null) {
+            ConfigurationSection defaultItems = source.getDefaults().getConfigurationSection("gui.items");
+            if (defaultItems != null) keys.addAll(defaultItems.getKeys(false));
+        }
+
+        Map<String, ItemTemplate> templates = new HashMap<>();
+        for (String key : keys) {
+            String path = "gui.items." + key;
+            String materialName = source.getString(path + ".material", "PAPER");
+            Material material = Material.matchMaterial(materialName);
+            if (material == null || !material.isItem()) {
+                problems.add("Invalid material '" + materialName + "' for " + path);
+                material = Material.PAPER;
+            }
+
+            List<String> lore = new ArrayList<>();
+            for (String line : source.getStringList(path + ".lore")) {
+                lore.add(colorize(line));
+            }
+            templates.put(key, new ItemTemplate(material, colorize(source.getString(path + ".name", "")), lore));
+        }
+        return Collections.unmodifiableMap(templates);
     }
 
     public int getItemSlot(String itemPath) {
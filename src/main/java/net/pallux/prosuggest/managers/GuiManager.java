@@ -2,6 +2,8 @@ package net.pallux.prosuggest.managers;
 
 import net.pallux.prosuggest.ProSuggest;
 import net.pallux.prosuggest.models.Suggestion;
+import net.pallux.prosuggest.models.SuggestionFilter;
+import net.pallux.prosuggest.models.SuggestionPage;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -13,12 +15,18 @@ import java.util.*;
 
 public class GuiManager {
 
+    // How often idle GUI sessions are looked for (30 seconds)
+    private static final long SESSION_SWEEP_INTERVAL = 20L * 30;
+
     private final ProSuggest plugin;
-    private final Map<UUID, GuiSession> sessions;
+    private final GuiSessionStore sessions;
 
     public GuiManager(ProSuggest plugin) {
         this.plugin = plugin;
-        this.sessions = new HashMap<>();
+        this.sessions = new GuiSessionStore(plugin.getConfigManager().getMaxGuiSessions(),
+                plugin.getConfigManager().getGuiSessionIdleMillis());
+        Bukkit.getScheduler().runTaskTimer(plugin, this::expireIdleSessions,
+                SESSION_SWEEP_INTERVAL, SESSION_SWEEP_INTERVAL);
     }
 
     public void openMainGui(Player player) {
@@ -26,83 +34,139 @@ public class GuiManager {
     }
 
     public void openMainGui(Player player, int page, SuggestionManager.SortType sortType) {
-        List<Suggestion> suggestions = plugin.getSuggestionManager().getSortedSuggestions(sortType);
+        SuggestionPage suggestionPage = plugin.getSuggestionManager().getPage(sortType, SuggestionFilter.ALL,
+                page, plugin.getConfigManager().getItemsPerPage());
+        showPage(player, GuiType.MAIN, sortType, SuggestionFilter.ALL, suggestionPage);
+    }
+
+    public void openMysuggestionsGui(Player player, int page) {
+        SuggestionFilter filter = SuggestionFilter.byAuthor(player.getUniqueId());
+        SuggestionPage suggestionPage = plugin.getSuggestionManager().getPage(SuggestionManager.SortType.OLDEST,
+                filter, page, plugin.getConfigManager().getItemsPerPage());
+        showPage(player, GuiType.MY_SUGGESTIONS, SuggestionManager.SortType.OLDEST, filter, suggestionPage);
+    }
+
+    /**
+     * Suggestions the player voted on, newest first.
+     */
+    public void openMyVotesGui(Player player, int page) {
+        SuggestionFilter filter = SuggestionFilter.byVoter(player.getUniqueId());
+        SuggestionPage suggestionPage = plugin.getSuggestionManager().getPage(SuggestionManager.SortType.RECENT,
+                filter, page, plugin.getConfigManager().getItemsPerPage());
+        showPage(player, GuiType.MY_VOTES, SuggestionManager.SortType.RECENT, filter, suggestionPage);
+    }
+
+    /**
+     * Continues a paged GUI after the last suggestion it showed, so the next page follows on even
+     * if suggestions were added, removed or re-scored meanwhile.
+     */
+    public void openNextPage(Player player, GuiSession session) {
+        if (session.getNextCursor() == null) return;
 
-        int itemsPerPage = plugin.getConfigManager().getItemsPerPage();
-        int totalPages = Math.max(1, (int) Math.ceil((double) suggestions.size() / itemsPerPage));
+        SuggestionPage suggestionPage = plugin.getSuggestionManager().getPageAfter(session.getSortType(),
+                session.getFilter(), session.getNextCursor(), plugin.getConfigManager().getItemsPerPage());
+        showPage(player, session.getGuiType(), session.getSortType(), session.getFilter(), suggestionPage);
+    }
+
+    /**
+     * Goes back to the page before the first suggestion the GUI showed, the counterpart of
+     * {@link #openNextPage(Player, GuiSession)}.
+     */
+    public void openPreviousPage(Player player, GuiSession session) {
+        if (session.getPreviousCursor() == null) return;
+
+        SuggestionPage suggestionPage = plugin.getSuggestionManager().getPageBefore(session.getSortType(),
+                session.getFilter(), session.getPreviousCursor(), plugin.getConfigManager().getItemsPerPage());
+        showPage(player, session.getGuiType(), session.getSortType(), session.getFilter(), suggestionPage);
+    }
 
-        if (page > totalPages) page = totalPages;
-        if (page < 1) page = 1;
+    private void showPage(Player player, GuiType guiType, SuggestionManager.SortType sortType,
+                          SuggestionFilter filter, SuggestionPage suggestionPage) {
+        int page = suggestionPage.getPage();
 
         int guiSize = plugin.getConfigManager().getGuiSize();
-        String title = plugin.getConfigManager().getGuiTitle("main")
+        String title = plugin.getConfigManager().getGuiTitle(getTitleKey(guiType))
                 .replace("%page%", String.valueOf(page))
-                .replace("%total%", String.valueOf(totalPages));
+                .replace("%total%", String.valueOf(suggestionPage.getTotalPages()));
 
         Inventory gui = Bukkit.createInventory(null, guiSize, title);
 
-        // Add suggestions
-        int startIndex = (page - 1) * itemsPerPage;
-        int endIndex = Math.min(startIndex + itemsPerPage, suggestions.size());
-
-        for (int i = startIndex; i < endIndex; i++) {
-            Suggestion suggestion = suggestions.get(i);
-            ItemStack item = createSuggestionItem(suggestion, player);
+        // Add suggestions, with admin context in the admin GUI
+        for (Suggestion suggestion : suggestionPage.getSuggestions()) {
+            ItemStack item = guiType == GuiType.ADMIN
+                    ? createAdminSuggestionItem(suggestion, player)
+                    : createSuggestionItem(suggestion, player);
             gui.addItem(item);
         }
 
         // Add navigation and action buttons
-        addNavigationButtons(gui, page, totalPages, sortType, GuiType.MAIN);
+        addNavigationButtons(gui, page, suggestionPage.hasPrevious(), suggestionPage.hasNext(), sortType, guiType);
 
         // Create session
-        GuiSession session = new GuiSession(GuiType.MAIN, page, sortType, suggestions);
-        sessions.put(player.getUniqueId(), session);
+        GuiSession session = new GuiSession(guiType, page, sortType, suggestionPage.getSuggestions());
+        session.setFilter(filter);
+        session.setPreviousCursor(suggestionPage.getPreviousCursor());
+        session.setNextCursor(suggestionPage.getNextCursor());
 
         player.openInventory(gui);
+        storeSession(player, session);
     }
 
-    public void openMysuggestionsGui(Player player, int page) {
-        List<Suggestion> suggestions = plugin.getSuggestionManager()
-                .getSuggestionsByPlayer(player.getUniqueId());
-
-        int itemsPerPage = plugin.getConfigManager().getItemsPerPage();
-        int totalPages = Math.max(1, (int) Math.ceil((double) suggestions.size() / itemsPerPage));
+    private String getTitleKey(GuiType guiType) {
+        switch (guiType) {
+            case MY_SUGGESTIONS:
+                return "my-suggestions";
+            case MY_VOTES:
+                return "my-votes";
+            case ADMIN:
+                return "admin";
+            default:
+                return "main";
+        }
+    }
 
-        if (page > totalPages) page = totalPages;
-        if (page < 1) page = 1;
+    /**
+     * Shows the best matches for the query, or tells the player there are none.
+     */
+    public void openSearchGui(Player player, String query) {
+        List<Suggestion> results = plugin.getSuggestionManager()
+                .searchSuggestions(query, plugin.getConfigManager().getItemsPerPage());
+        if (results.isEmpty()) {
+            player.sendMessage(plugin.getConfigManager().getMessage("search.no-results", "%query%", query));
+            return;
+        }
 
         int guiSize = plugin.getConfigManager().getGuiSize();
-        String title = plugin.getConfigManager().getGuiTitle("my-suggestions")
-                .replace("%page%", String.valueOf(page));
+        String title = plugin.getConfigManager().getGuiTitle("search")
+                .replace("%query%", query);
 
         Inventory gui = Bukkit.createInventory(null, guiSize, title);
 
-        // Add suggestions
-        int startIndex = (page - 1) * itemsPerPage;
-        int endIndex = Math.min(startIndex + itemsPerPage, suggestions.size());
-
-        for (int i = startIndex; i < endIndex; i++) {
-            Suggestion suggestion = suggestions.get(i);
-            ItemStack item = createSuggestionItem(suggestion, player);
-            gui.addItem(item);
+        // Add results, best match first
+        for (Suggestion suggestion : results) {
+            gui.addItem(createSuggestionItem(suggestion, player));
         }
 
-        // Add navigation buttons
-        addNavigationButtons(gui, page, totalPages, SuggestionManager.SortType.RECENT, GuiType.MY_SUGGESTIONS);
+        // Search again and back buttons
+        gui.setItem(plugin.getConfigManager().getItemSlot("search"), createActionItem("search"));
+        gui.setItem(guiSize - 9, createBackButton());
+        fillBottomRow(gui);
 
         // Create session
-        GuiSession session = new GuiSession(GuiType.MY_SUGGESTIONS, page, SuggestionManager.SortType.RECENT, suggestions);
-        sessions.put(player.getUniqueId(), session);
+        GuiSession session = new GuiSession(GuiType.SEARCH, 1, SuggestionManager.SortType.RECENT, results);
 
+        player.sendMessage(plugin.getConfigManager().getMessage("search.results",
+                "%count%", String.valueOf(results.size()), "%query%", query));
         player.openInventory(gui);
+        storeSession(player, session);
     }
 
-    public void openSuggestionView(Player player, String suggestionId) {
+    public void openSuggestionView(Player player, int suggestionId) {
         Suggestion suggestion = plugin.getSuggestionManager().getSuggestion(suggestionId);
         if (suggestion == null) return;
 
         String title = plugin.getConfigManager().getGuiTitle("view")
-                .replace("%id%", suggestionId);
+                .replace("%id%", suggestion.getDisplayId());
 
         Inventory gui = Bukkit.createInventory(null, 27, title);
 
@@ -128,56 +192,34 @@ public class GuiManager {
         GuiSession session = new GuiSession(GuiType.VIEW_SUGGESTION, 1, SuggestionManager.SortType.RECENT,
                 Collections.singletonList(suggestion));
         session.setViewingSuggestionId(suggestionId);
-        sessions.put(player.getUniqueId(), session);
 
         player.openInventory(gui);
+        storeSession(player, session);
     }
 
     public void openAdminGui(Player player, int page) {
-        List<Suggestion> suggestions = plugin.getSuggestionManager().getAllSuggestions();
-
-        int itemsPerPage = plugin.getConfigManager().getItemsPerPage();
-        int totalPages = Math.max(1, (int) Math.ceil((double) suggestions.size() / itemsPerPage));
-
-        if (page > totalPages) page = totalPages;
-        if (page < 1) page = 1;
-
-        int guiSize = plugin.getConfigManager().getGuiSize();
-        String title = plugin.getConfigManager().getGuiTitle("admin")
-                .replace("%page%", String.valueOf(page));
-
-        Inventory gui = Bukkit.createInventory(null, guiSize, title);
-
-        // Add suggestions with admin context
-        int startIndex = (page - 1) * itemsPerPage;
-        int endIndex = Math.min(startIndex + itemsPerPage, suggestions.size());
-
-        for (int i = startIndex; i < endIndex; i++) {
-            Suggestion suggestion = suggestions.get(i);
-            ItemStack item = createAdminSuggestionItem(suggestion, player);
-            gui.addItem(item);
-        }
-
-        // Add navigation buttons
-        addNavigationButtons(gui, page, totalPages, SuggestionManager.SortType.RECENT, GuiType.ADMIN);
-
-        // Create session
-        GuiSession session = new GuiSession(GuiType.ADMIN, page, SuggestionManager.SortType.RECENT, suggestions);
-        sessions.put(player.getUniqueId(), session);
+        openAdminGui(player, page, SuggestionFilter.ALL);
+    }
 
-        player.openInventory(gui);
+    /**
+     * The admin GUI limited to suggestions matching the filter, as opened by {@code /psadmin find}.
+     */
+    public void openAdminGui(Player player, int page, SuggestionFilter filter) {
+        SuggestionPage suggestionPage = plugin.getSuggestionManager().getPage(SuggestionManager.SortType.OLDEST,
+                filter, page, plugin.getConfigManager().getItemsPerPage());
+        showPage(player, GuiType.ADMIN, SuggestionManager.SortType.OLDEST, filter, suggestionPage);
     }
 
-    public void openAdminEditGui(Player player, String suggestionId) {
+    public void openAdminEditGui(Player player, int suggestionId) {
         Suggestion suggestion = plugin.getSuggestionManager().getSuggestion(suggestionId);
         if (suggestion == null) {
             player.sendMessage(plugin.getConfigManager().getMessage("delete.not-found",
-                    "%id%", suggestionId));
+                    "%id%", Suggestion.formatId(suggestionId)));
             return;
         }
 
         String title = plugin.getConfigManager().getGuiTitle("admin-edit")
-                .replace("%id%", suggestionId);
+                .replace("%id%", suggestion.getDisplayId());
 
         Inventory gui = Bukkit.createInventory(null, 27, title);
 
@@ -212,170 +254,120 @@ public class GuiManager {
         GuiSession session = new GuiSession(GuiType.ADMIN_EDIT, 1, SuggestionManager.SortType.RECENT,
                 Collections.singletonList(suggestion));
         session.setViewingSuggestionId(suggestionId);
-        sessions.put(player.getUniqueId(), session);
 
         player.openInventory(gui);
+        storeSession(player, session);
     }
 
     private ItemStack createSuggestionItem(Suggestion suggestion, Player viewer) {
-        Material material = Material.valueOf(plugin.getConfigManager().getItemMaterial("suggestion"));
-        ItemStack item = new ItemStack(material);
-        ItemMeta meta = item.getItemMeta();
-
-        if (meta != null) {
-            // Title
-            String name = plugin.getConfigManager().getItemName("suggestion")
-                    .replace("%title%", suggestion.getTitle())
-                    .replace("%id%", suggestion.getId());
-            meta.setDisplayName(name);
-
-            // Lore
-            List<String> lore = new ArrayList<>();
-            String[] loreLines = plugin.getConfigManager().getItemLore("suggestion").split("\n");
-
-            for (String line : loreLines) {
-                String processedLine = line
-                        .replace("%author%", suggestion.getAuthorName())
-                        .replace("%id%", suggestion.getId())
-                        .replace("%date%", suggestion.getFormattedDate())
-                        .replace("%upvotes%", String.valueOf(suggestion.getUpvoteCount()))
-                        .replace("%downvotes%", String.valueOf(suggestion.getDownvoteCount()))
-                        .replace("%description%", suggestion.getDescription());
-
-                lore.add(plugin.getConfigManager().colorize(processedLine));
-            }
-
-            // Add vote status if player has voted
-            Suggestion.VoteType voteType = suggestion.getVoteType(viewer.getUniqueId());
-            if (voteType != null) {
-                if (voteType == Suggestion.VoteType.UPVOTE) {
-                    lore.add(plugin.getConfigManager().getMessage("gui.voted-up"));
-                } else {
-                    lore.add(plugin.getConfigManager().getMessage("gui.voted-down"));
-                }
-            }
+        ItemTemplate template = plugin.getConfigManager().getItemTemplate("suggestion");
+        return template.create(template.fillName("%title%", suggestion.getTitle(), "%id%", suggestion.getDisplayId()),
+                createSuggestionLore(template, suggestion, viewer));
+    }
 
-            // Mark own suggestions
-            if (suggestion.getAuthorUUID().equals(viewer.getUniqueId())) {
-                lore.add(plugin.getConfigManager().getMessage("gui.own-suggestion"));
-            }
+    private List<String> createSuggestionLore(ItemTemplate template, Suggestion suggestion, Player viewer) {
+        // Counts include vote clicks not applied yet
+        int upvotes = plugin.getSuggestionManager().getUpvoteCount(suggestion);
+        int downvotes = plugin.getSuggestionManager().getDownvoteCount(suggestion);
+
+        List<String> lore = template.fillLore(
+                "%author%", suggestion.getAuthorName(),
+                "%id%", suggestion.getDisplayId(),
+                "%date%", suggestion.getFormattedDate(),
+                "%upvotes%", String.valueOf(upvotes),
+                "%downvotes%", String.valueOf(downvotes),
+                "%description%", suggestion.getDescription());
+
+        // Add vote status if player has voted, including clicks not applied yet
+        int voteState = plugin.getSuggestionManager().getVoteState(suggestion, viewer.getUniqueId());
+        if (voteState == Suggestion.VOTE_UP) {
+            lore.add(plugin.getConfigManager().getMessage("gui.voted-up"));
+        } else if (voteState == Suggestion.VOTE_DOWN) {
+            lore.add(plugin.getConfigManager().getMessage("gui.voted-down"));
+        }
 
-            // Add admin response if exists
-            if (suggestion.getAdminResponse() != null) {
-                lore.add("");
-                lore.add(plugin.getConfigManager().getMessage("gui.admin-response",
-                        "%response%", suggestion.getAdminResponse()));
-            }
+        // Mark own suggestions
+        if (suggestion.getAuthorUUID().equals(viewer.getUniqueId())) {
+            lore.add(plugin.getConfigManager().getMessage("gui.own-suggestion"));
+        }
 
-            meta.setLore(lore);
-            item.setItemMeta(meta);
+        // Add admin response if exists
+        if (suggestion.getAdminResponse() != null) {
+            lore.add("");
+            lore.add(plugin.getConfigManager().getMessage("gui.admin-response",
+                    "%response%", suggestion.getAdminResponse()));
         }
 
-        return item;
+        return lore;
     }
 
     private ItemStack createDetailedSuggestionItem(Suggestion suggestion, Player viewer) {
-        Material material = Material.valueOf(plugin.getConfigManager().getItemMaterial("suggestion"));
-        ItemStack item = new ItemStack(material);
-        ItemMeta meta = item.getItemMeta();
-
-        if (meta != null) {
-            String name = plugin.getConfigManager().colorize("&e&l" + suggestion.getTitle());
-            meta.setDisplayName(name);
+        String name = plugin.getConfigManager().colorize("&e&l" + suggestion.getTitle());
+
+        List<String> lore = new ArrayList<>();
+        lore.add(plugin.getConfigManager().colorize("&7By: &f" + suggestion.getAuthorName()));
+        lore.add(plugin.getConfigManager().colorize("&7ID: &f" + suggestion.getDisplayId()));
+        lore.add(plugin.getConfigManager().colorize("&7Created: &f" + suggestion.getFormattedDate()));
+        lore.add("");
+        SuggestionManager manager = plugin.getSuggestionManager();
+        lore.add(plugin.getConfigManager().colorize("&a▲ &f" + manager.getUpvoteCount(suggestion)
+                + " &c▼ &f" + manager.getDownvoteCount(suggestion)));
+        lore.add("");
+        lore.add(plugin.getConfigManager().colorize("&7Description:"));
+
+        // Wrap description
+        List<String> wrappedDesc = suggestion.getWrappedDescription(40);
+        for (String line : wrappedDesc) {
+            lore.add(plugin.getConfigManager().colorize("&f" + line));
+        }
 
-            List<String> lore = new ArrayList<>();
-            lore.add(plugin.getConfigManager().colorize("&7By: &f" + suggestion.getAuthorName()));
-            lore.add(plugin.getConfigManager().colorize("&7ID: &f" + suggestion.getId()));
-            lore.add(plugin.getConfigManager().colorize("&7Created: &f" + suggestion.getFormattedDate()));
+        if (suggestion.getAdminResponse() != null) {
             lore.add("");
-            lore.add(plugin.getConfigManager().colorize("&a▲ &f" + suggestion.getUpvoteCount() +
-                    " &c▼ &f" + suggestion.getDownvoteCount()));
-            lore.add("");
-            lore.add(plugin.getConfigManager().colorize("&7Description:"));
-
-            // Wrap description
-            List<String> wrappedDesc = suggestion.getWrappedDescription(40);
-            for (String line : wrappedDesc) {
-                lore.add(plugin.getConfigManager().colorize("&f" + line));
-            }
-
-            if (suggestion.getAdminResponse() != null) {
-                lore.add("");
-                lore.add(plugin.getConfigManager().getMessage("gui.admin-response",
-                        "%response%", suggestion.getAdminResponse()));
-            }
-
-            meta.setLore(lore);
-            item.setItemMeta(meta);
+            lore.add(plugin.getConfigManager().getMessage("gui.admin-response",
+                    "%response%", suggestion.getAdminResponse()));
         }
 
-        return item;
+        // Only the material comes from the config
+        return plugin.getConfigManager().getItemTemplate("suggestion").create(name, lore);
     }
 
     private ItemStack createAdminSuggestionItem(Suggestion suggestion, Player viewer) {
-        ItemStack item = createSuggestionItem(suggestion, viewer);
-        ItemMeta meta = item.getItemMeta();
-
-        if (meta != null) {
-            List<String> lore = meta.getLore();
-            if (lore == null) lore = new ArrayList<>();
+        ItemTemplate template = plugin.getConfigManager().getItemTemplate("suggestion");
+        List<String> lore = createSuggestionLore(template, suggestion, viewer);
 
-            lore.add("");
-            lore.add(plugin.getConfigManager().colorize("&c&lADMIN ACTIONS:"));
-            lore.add(plugin.getConfigManager().colorize("&7Left Click: View/Edit"));
-            lore.add(plugin.getConfigManager().colorize("&7Right Click: Delete"));
-
-            meta.setLore(lore);
-            item.setItemMeta(meta);
-        }
+        lore.add("");
+        lore.add(plugin.getConfigManager().colorize("&c&lADMIN ACTIONS:"));
+        lore.add(plugin.getConfigManager().colorize("&7Left Click: View/Edit"));
+        lore.add(plugin.getConfigManager().colorize("&7Right Click: Delete"));
 
-        return item;
+        return template.create(template.fillName("%title%", suggestion.getTitle(), "%id%", suggestion.getDisplayId()),
+                lore);
     }
 
     private ItemStack createVoteItem(String voteType, Suggestion suggestion) {
-        Material material = Material.valueOf(plugin.getConfigManager().getItemMaterial(voteType));
-        ItemStack item = new ItemStack(material);
-        ItemMeta meta = item.getItemMeta();
-
-        if (meta != null) {
-            String name = plugin.getConfigManager().getItemName(voteType);
-            if (voteType.equals("upvote")) {
-                name = name.replace("%upvotes%", String.valueOf(suggestion.getUpvoteCount()));
-            } else {
-                name = name.replace("%downvotes%", String.valueOf(suggestion.getDownvoteCount()));
-            }
-            meta.setDisplayName(name);
-
-            List<String> lore = Arrays.asList(plugin.getConfigManager().getItemLore(voteType).split("\n"));
-            List<String> processedLore = new ArrayList<>();
-            for (String line : lore) {
-                if (voteType.equals("upvote")) {
-                    line = line.replace("%upvotes%", String.valueOf(suggestion.getUpvoteCount()));
-                } else {
-                    line = line.replace("%downvotes%", String.valueOf(suggestion.getDownvoteCount()));
-                }
-                processedLore.add(plugin.getConfigManager().colorize(line));
-            }
-            meta.setLore(processedLore);
+        ItemTemplate template = plugin.getConfigManager().getItemTemplate(voteType);
 
-            item.setItemMeta(meta);
+        // Counts include vote clicks not applied yet
+        if (voteType.equals("upvote")) {
+            return template.create("%upvotes%",
+                    String.valueOf(plugin.getSuggestionManager().getUpvoteCount(suggestion)));
         }
-
-        return item;
+        return template.create("%downvotes%",
+                String.valueOf(plugin.getSuggestionManager().getDownvoteCount(suggestion)));
     }
 
-    private void addNavigationButtons(Inventory gui, int currentPage, int totalPages,
+    private void addNavigationButtons(Inventory gui, int currentPage, boolean hasPreviousPage, boolean hasNextPage,
                                       SuggestionManager.SortType sortType, GuiType guiType) {
         int guiSize = gui.getSize();
 
         // Previous page button
-        if (currentPage > 1) {
+        if (hasPreviousPage) {
             ItemStack prevItem = createNavigationItem("previous-page", currentPage - 1);
             gui.setItem(plugin.getConfigManager().getItemSlot("previous-page"), prevItem);
         }
 
         // Next page button
-        if (currentPage < totalPages) {
+        if (hasNextPage) {
             ItemStack nextItem = createNavigationItem("next-page", currentPage + 1);
             gui.setItem(plugin.getConfigManager().getItemSlot("next-page"), nextItem);
         }
@@ -390,12 +382,20 @@ public class GuiManager {
             ItemStack myItem = createActionItem("my-suggestions");
             gui.setItem(plugin.getConfigManager().getItemSlot("my-suggestions"), myItem);
 
+            // My votes button
+            ItemStack votesItem = createActionItem("my-votes");
+            gui.setItem(plugin.getConfigManager().getItemSlot("my-votes"), votesItem);
+
             // Delete suggestion button
             ItemStack deleteItem = createActionItem("delete-suggestion");
             gui.setItem(plugin.getConfigManager().getItemSlot("delete-suggestion"), deleteItem);
 
+            // Search button
+            ItemStack searchItem = createActionItem("search");
+            gui.setItem(plugin.getConfigManager().getItemSlot("search"), searchItem);
+
             // Sort button
-            String sortItemType = sortType == SuggestionManager.SortType.RECENT ? "sort-recent" : "sort-popular";
+            String sortItemType = "sort-" + sortType.name().toLowerCase(Locale.ROOT);
             ItemStack sortItem = createActionItem(sortItemType);
             gui.setItem(plugin.getConfigManager().getItemSlot("sort-recent"), sortItem);
         }
@@ -405,48 +405,11 @@ public class GuiManager {
     }
 
     private ItemStack createNavigationItem(String itemType, int targetPage) {
-        Material material = Material.valueOf(plugin.getConfigManager().getItemMaterial(itemType));
-        ItemStack item = new ItemStack(material);
-        ItemMeta meta = item.getItemMeta();
-
-        if (meta != null) {
-            String name = plugin.getConfigManager().getItemName(itemType)
-                    .replace("%page%", String.valueOf(targetPage));
-            meta.setDisplayName(name);
-
-            List<String> lore = Arrays.asList(plugin.getConfigManager().getItemLore(itemType).split("\n"));
-            List<String> processedLore = new ArrayList<>();
-            for (String line : lore) {
-                processedLore.add(plugin.getConfigManager().colorize(
-                        line.replace("%page%", String.valueOf(targetPage))));
-            }
-            meta.setLore(processedLore);
-
-            item.setItemMeta(meta);
-        }
-
-        return item;
+        return plugin.getConfigManager().getItemTemplate(itemType).create("%page%", String.valueOf(targetPage));
     }
 
     private ItemStack createActionItem(String itemType) {
-        Material material = Material.valueOf(plugin.getConfigManager().getItemMaterial(itemType));
-        ItemStack item = new ItemStack(material);
-        ItemMeta meta = item.getItemMeta();
-
-        if (meta != null) {
-            meta.setDisplayName(plugin.getConfigManager().getItemName(itemType));
-
-            List<String> lore = Arrays.asList(plugin.getConfigManager().getItemLore(itemType).split("\n"));
-            List<String> processedLore = new ArrayList<>();
-            for (String line : lore) {
-                processedLore.add(plugin.getConfigManager().colorize(line));
-            }
-            meta.setLore(processedLore);
-
-            item.setItemMeta(meta);
-        }
-
-        return item;
+        return plugin.getConfigManager().getItemTemplate(itemType).create();
     }
 
     private ItemStack createBackButton() {
@@ -463,14 +426,8 @@ public class GuiManager {
     }
 
     private void fillEmptySlots(Inventory gui) {
-        Material fillerMaterial = Material.valueOf(plugin.getConfigManager().getItemMaterial("filler"));
-        ItemStack filler = new ItemStack(fillerMaterial);
-        ItemMeta meta = filler.getItemMeta();
-
-        if (meta != null) {
-            meta.setDisplayName(plugin.getConfigManager().getItemName("filler"));
-            filler.setItemMeta(meta);
-        }
+        // The inventory stores copies, so one filler serves every slot
+        ItemStack filler = plugin.getConfigManager().getItemTemplate("filler").create();
 
         for (int i = 0; i < gui.getSize(); i++) {
             if (gui.getItem(i) == null) {
@@ -480,14 +437,7 @@ public class GuiManager {
     }
 
     private void fillBottomRow(Inventory gui) {
-        Material fillerMaterial = Material.valueOf(plugin.getConfigManager().getItemMaterial("filler"));
-        ItemStack filler = new ItemStack(fillerMaterial);
-        ItemMeta meta = filler.getItemMeta();
-
-        if (meta != null) {
-            meta.setDisplayName(plugin.getConfigManager().getItemName("filler"));
-            filler.setItemMeta(meta);
-        }
+        ItemStack filler = plugin.getConfigManager().getItemTemplate("filler").create();
 
         int bottomRowStart = gui.getSize() - 9;
         for (int i = bottomRowStart; i < gui.getSize(); i++) {
@@ -505,22 +455,51 @@ public class GuiManager {
         sessions.remove(playerUUID);
     }
 
+    public GuiSessionStore getSessionStore() {
+        return sessions;
+    }
+
+    // Only after opening: replacing an open GUI fires a close event for the old one, which ends its session
+    private void storeSession(Player player, GuiSession session) {
+        sessions.put(player.getUniqueId(), session, this::closeDroppedSession);
+    }
+
+    private void expireIdleSessions() {
+        // Picks up limits changed by a reload
+        sessions.configure(plugin.getConfigManager().getMaxGuiSessions(),
+                plugin.getConfigManager().getGuiSessionIdleMillis());
+        sessions.expireIdle(this::closeDroppedSession);
+    }
+
+    // A GUI without a session would no longer cancel clicks, so it must not stay open
+    private void closeDroppedSession(UUID playerUUID) {
+        Player player = Bukkit.getPlayer(playerUUID);
+        if (player != null) {
+            player.closeInventory();
+        }
+    }
+
     // Inner classes
     public static class GuiSession {
         private GuiType guiType;
         private int currentPage;
         private SuggestionManager.SortType sortType;
-        private List<Suggestion> currentSuggestions;
-        private String viewingSuggestionId;
+        private SuggestionFilter filter;
+        // IDs of the suggestions on screen, never more than a page; other pages come through the cursors
+        private int[] suggestionIds;
+        private SuggestionPage.Cursor previousCursor;
+        private SuggestionPage.Cursor nextCursor;
+        private int viewingSuggestionId;
         private boolean awaitingConfirmation;
-        private String confirmationTarget;
+        private int confirmationTarget;
 
         public GuiSession(GuiType guiType, int currentPage, SuggestionManager.SortType sortType,
                           List<Suggestion> currentSuggestions) {
             this.guiType = guiType;
             this.currentPage = currentPage;
             this.sortType = sortType;
-            this.currentSuggestions = new ArrayList<>(currentSuggestions);
+            this.filter = SuggestionFilter.ALL;
+            setCurrentSuggestions(currentSuggestions);
             this.awaitingConfirmation = false;
         }
 
@@ -534,36 +513,49 @@ public class GuiManager {
         public SuggestionManager.SortType getSortType() { return sortType; }
         public void setSortType(SuggestionManager.SortType sortType) { this.sortType = sortType; }
 
-        public List<Suggestion> getCurrentSuggestions() { return currentSuggestions; }
+        public SuggestionFilter getFilter() { return filter; }
+        public void setFilter(SuggestionFilter filter) { this.filter = filter; }
+
+        public SuggestionPage.Cursor getPreviousCursor() { return previousCursor; }
+        public void setPreviousCursor(SuggestionPage.Cursor previousCursor) { this.previousCursor = previousCursor; }
+
+        public SuggestionPage.Cursor getNextCursor() { return nextCursor; }
+        public void setNextCursor(SuggestionPage.Cursor nextCursor) { this.nextCursor = nextCursor; }
+
         public void setCurrentSuggestions(List<Suggestion> currentSuggestions) {
-            this.currentSuggestions = new ArrayList<>(currentSuggestions);
+            this.suggestionIds = new int[currentSuggestions.size()];
+            for (int i = 0; i < suggestionIds.length; i++) {
+                suggestionIds[i] = currentSuggestions.get(i).getId();
+            }
         }
 
-        public String getViewingSuggestionId() { return viewingSuggestionId; }
-        public void setViewingSuggestionId(String viewingSuggestionId) { this.viewingSuggestionId = viewingSuggestionId; }
+        // 0 when no suggestion is open; IDs start at 1
+        public int getViewingSuggestionId() { return viewingSuggestionId; }
+        public void setViewingSuggestionId(int viewingSuggestionId) { this.viewingSuggestionId = viewingSuggestionId; }
 
         public boolean isAwaitingConfirmation() { return awaitingConfirmation; }
         public void setAwaitingConfirmation(boolean awaitingConfirmation) { this.awaitingConfirmation = awaitingConfirmation; }
 
-        public String getConfirmationTarget() { return confirmationTarget; }
-        public void setConfirmationTarget(String confirmationTarget) { this.confirmationTarget = confirmationTarget; }
-
-        public Suggestion getSuggestionAtSlot(int slot) {
-            if (slot < 0 || slot >= currentSuggestions.size()) return null;
+        public int getConfirmationTarget() { return confirmationTarget; }
+        public void setConfirmationTarget(int confirmationTarget) { this.confirmationTarget = confirmationTarget; }
 
-            int itemsPerPage = 45; // This should be configurable
-            int startIndex = (currentPage - 1) * itemsPerPage;
-            int actualIndex = startIndex + slot;
-
-            if (actualIndex < currentSuggestions.size()) {
-                return currentSuggestions.get(actualIndex);
-            }
+        /**
+         * ID of the suggestion shown in the slot, or 0 if there is none.
+         */
+        public int getSuggestionIdAtSlot(int slot) {
+            if (slot < 0 || slot >= suggestionIds.length) return 0;
+            return suggestionIds[slot];
+        }
 
-            return null;
+        /**
+         * Approximate heap size in bytes. The filter is not counted, as it is usually shared.
+         */
+        public long getMemoryFootprint() {
+            return 64 + 16 + 4L * suggestionIds.length;
         }
     }
 
     public enum GuiType {
-        MAIN, MY_SUGGESTIONS, VIEW_SUGGESTION, ADMIN, ADMIN_EDIT
+        MAIN, MY_SUGGESTIONS, MY_VOTES, VIEW_SUGGESTION, ADMIN, ADMIN_EDIT, SEARCH
     }
 }
\ No newline at end of file
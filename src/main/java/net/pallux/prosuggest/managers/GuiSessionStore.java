@@ -0,0 +1,126 @@
+package net.pallux.prosuggest.managers;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Open GUI sessions by player, with a size limit and idle expiry.
+ * <p>
+ * A session normally ends when its inventory is closed. Sessions that are never closed, for
+ * example because the close event got lost, are dropped once nobody clicked in them for the idle
+ * time, and when the store is full the least recently used session makes room for a new one.
+ * Sessions are kept in access order, so both only ever look at the oldest entries. Main thread only.
+ */
+public class GuiSessionStore {
+
+    // Map node, UUID key and the entry itself
+    private static final long ENTRY_OVERHEAD = 32 + 32 + 24;
+
+    // Least recently used first
+    private final LinkedHashMap<UUID, Entry> sessions;
+    private long expiredCount;
+    private long evictedCount;
+    private int maxSessions;
+    private long idleMillis;
+
+    public GuiSessionStore(int maxSessions, long idleMillis) {
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true);
+        configure(maxSessions, idleMillis);
+    }
+
+    public void configure(int maxSessions, long idleMillis) {
+        this.maxSessions = Math.max(1, maxSessions);
+        this.idleMillis = Math.max(1, idleMillis);
+    }
+
+    /**
+     * The player's session, or null. Counts as activity for the idle expiry.
+     */
+    public GuiManager.GuiSession get(UUID playerUUID) {
+        Entry entry = sessions.get(playerUUID);
+        if (entry == null) return null;
+
+        entry.lastAccess = System.currentTimeMillis();
+        return entry.session;
+    }
+
+    /**
+     * Stores the player's session, replacing any previous one.
+     *
+     * @param onEvicted receives the player whose session was dropped to make room, if any
+     */
+    public void put(UUID playerUUID, GuiManager.GuiSession session, Consumer<UUID> onEvicted) {
+        sessions.put(playerUUID, new Entry(session));
+
+        // Also trims the store after the limit was lowered by a reload
+        List<UUID> evicted = new ArrayList<>(1);
+        Iterator<Map.Entry<UUID, Entry>> oldest = sessions.entrySet().iterator();
+        while (sessions.size() > maxSessions) {
+            evicted.add(oldest.next().getKey());
+            oldest.remove();
+        }
+
+        // Only after iterating, as the callback may close inventories and so remove sessions
+        evictedCount += evicted.size();
+        evicted.forEach(onEvicted);
+    }
+
+    public void remove(UUID playerUUID) {
+        sessions.remove(playerUUID);
+    }
+
+    /**
+     * Drops every session idle for longer than the idle time.
+     *
+     * @param onExpired receives each player whose session was dropped
+     */
+    public void expireIdle(Consumer<UUID> onExpired) {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        List<UUID> expired = new ArrayList<>();
+        Iterator<Map.Entry<UUID, Entry>> oldest = sessions.entrySet().iterator();
+        while (oldest.hasNext()) {
+            Map.Entry<UUID, Entry> candidate = oldest.next();
+            // Everything after this one was used more recently
+            if (candidate.getValue().lastAccess >= cutoff) break;
+
+            expired.add(candidate.getKey());
+            oldest.remove();
+        }
+
+        expiredCount += expired.size();
+        expired.forEach(onExpired);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Approximate heap size of all sessions in bytes.
+     */
+    public long getRetainedBytes() {
+        long bytes = 0;
+        for (Entry entry : sessions.values()) {
+            bytes += ENTRY_OVERHEAD + entry.session.getMemoryFootprint();
+        }
+        return bytes;
+    }
+
+    public long getExpiredCount() { return expiredCount; }
+    public long getEvictedCount() { return evictedCount; }
+
+    private static final class Entry {
+        private final GuiManager.GuiSession session;
+        private long lastAccess;
+
+        private Entry(GuiManager.GuiSession session) {
+            this.session = session;
+            this.lastAccess = System.currentTimeMillis();
+        }
+    }
+}
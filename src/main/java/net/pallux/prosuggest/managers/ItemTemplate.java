@@ -0,0 +1,105 @@
+package net.pallux.prosuggest.managers;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A GUI item from the config, compiled once: material checked, name and lore colorized and the
+ * lore split into lines. Rendering clones the prebuilt item and only fills in the placeholders.
+ */
+public final class ItemTemplate {
+
+    private final Material material;
+    private final String name;
+    private final List<String> lore;
+    private final boolean hasPlaceholders;
+    private final ItemStack base;
+
+    /**
+     * @param name the colorized display name
+     * @param lore the colorized lore lines
+     */
+    public ItemTemplate(Material material, String name, List<String> lore) {
+        this.material = material;
+        this.name = name;
+        this.lore = Collections.unmodifiableList(new ArrayList<>(lore));
+
+        boolean placeholders = name.indexOf('%') >= 0;
+        for (String line : lore) {
+            placeholders |= line.indexOf('%') >= 0;
+        }
+        this.hasPlaceholders = placeholders;
+
+        this.base = new ItemStack(material);
+        ItemMeta meta = base.getItemMeta();
+        if (meta != null) {
+            meta.setDisplayName(name);
+            meta.setLore(this.lore);
+            base.setItemMeta(meta);
+        }
+    }
+
+    /**
+     * A copy of the item as configured.
+     */
+    public ItemStack create() {
+        return base.clone();
+    }
+
+    /**
+     * A copy of the item with the placeholders in name and lore replaced.
+     *
+     * @param replacements placeholder and value pairs, like {@link ConfigManager#getMessage(String, String...)}
+     */
+    public ItemStack create(String... replacements) {
+        if (!hasPlaceholders) return create();
+        return create(fillName(replacements), fillLore(replacements));
+    }
+
+    /**
+     * A copy of the item with its name and lore replaced.
+     */
+    public ItemStack create(String displayName, List<String> loreLines) {
+        ItemStack item = base.clone();
+        ItemMeta meta = item.getItemMeta();
+        if (meta != null) {
+            meta.setDisplayName(displayName);
+            meta.setLore(loreLines);
+            item.setItemMeta(meta);
+        }
+        return item;
+    }
+
+    public String fillName(String... replacements) {
+        return replace(name, replacements);
+    }
+
+    /**
+     * The lore with the placeholders replaced, as a new list that may be added to.
+     */
+    public List<String> fillLore(String... replacements) {
+        List<String> lines = new ArrayList<>(lore.size() + 4);
+        for (String line : lore) {
+            lines.add(replace(line, replacements));
+        }
+        return lines;
+    }
+
+    public Material getMaterial() { return material; }
+    public String getName() { return name; }
+    public List<String> getLore() { return lore; }
+
+    private static String replace(String text, String[] replacements) {
+        if (text.indexOf('%') < 0) return text;
+
+        for (int i = 0; i + 1 < replacements.length; i += 2) {
+            text = text.replace(replacements[i], replacements[i + 1]);
+        }
+        return text;
+    }
+}
@@ -1,169 +1,814 @@
 package net.pallux.prosuggest.managers;
 
 import net.pallux.prosuggest.ProSuggest;
+import net.pallux.prosuggest.models.PlayerDictionary;
 import net.pallux.prosuggest.models.Suggestion;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
+import net.pallux.prosuggest.models.SuggestionFilter;
+import net.pallux.prosuggest.models.SuggestionPage;
+import net.pallux.prosuggest.models.VoteBitmap;
+import net.pallux.prosuggest.ranking.Rankings;
+import net.pallux.prosuggest.ranking.TrendTracker;
+import net.pallux.prosuggest.search.DuplicateIndex;
+import net.pallux.prosuggest.search.SearchIndex;
+import net.pallux.prosuggest.storage.BinarySuggestionStore;
+import net.pallux.prosuggest.storage.PlayerDictionaryFile;
+import net.pallux.prosuggest.storage.ShardedSuggestionStore;
+import net.pallux.prosuggest.storage.SqliteSuggestionStore;
+import net.pallux.prosuggest.storage.StoreMigrator;
+import net.pallux.prosuggest.storage.SuggestionStore;
+import net.pallux.prosuggest.storage.WriteBehindFlusher;
+import net.pallux.prosuggest.storage.YamlSuggestionStore;
+import net.pallux.prosuggest.util.IntObjectMap;
+import net.pallux.prosuggest.util.IntSortedSet;
+import net.pallux.prosuggest.util.RankedIdTree;
+import org.bukkit.Bukkit;
 import org.bukkit.configuration.serialization.ConfigurationSerialization;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
-import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
-
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Owns all suggestions and the indexes over them.
+ * <p>
+ * The main server thread is the only thread allowed to read or change them; everything else
+ * (chat input, storage) hands its work to the main thread through the scheduler and
+ * gets copies back. With a single writer no locks are needed, GUIs always see a consistent state
+ * and no vote can be lost to a race. Changing methods check the thread and fail fast otherwise.
+ */
 public class SuggestionManager {
 
+    // How often the TRENDING decay is checked (5 minutes)
+    private static final long TREND_TICK_INTERVAL = 20L * 60 * 5;
+
     private final ProSuggest plugin;
-    private final Map<String, Suggestion> suggestions;
+    private final IntObjectMap<Suggestion> suggestions;
+    // Author -> IDs of their suggestions, kept in step with the suggestions map
+    private final Map<UUID, IntSortedSet> suggestionsByAuthor;
+    // Voter's dictionary ID -> IDs of the suggestions they voted on, kept in step with the vote sets
+    private final IntObjectMap<IntSortedSet> votesByPlayer;
+    // One ordering per sort type, updated whenever a sort key changes
+    private final Map<SortType, RankedIdTree> sortIndexes;
+    private final SearchIndex searchIndex;
+    private final DuplicateIndex duplicateIndex;
+    private final VoteQueue voteQueue;
+    private boolean voteApplyScheduled;
+    private TrendTracker trends;
+    private BukkitTask trendTask;
     private final AtomicInteger idCounter;
-    private File suggestionsFile;
+    private final WriteBehindFlusher writeBehind;
+    private volatile boolean loaded;
 
     public SuggestionManager(ProSuggest plugin) {
         this.plugin = plugin;
-        this.suggestions = new LinkedHashMap<>();
+        this.suggestions = new IntObjectMap<>();
+        this.suggestionsByAuthor = new HashMap<>();
+        this.votesByPlayer = new IntObjectMap<>();
+        this.sortIndexes = new EnumMap<>(SortType.class);
+        for (SortType sortType : SortType.values()) {
+            sortIndexes.put(sortType, new RankedIdTree());
+        }
+        this.searchIndex = new SearchIndex();
+        this.duplicateIndex = new DuplicateIndex();
+        this.voteQueue = new VoteQueue();
+        this.trends = new TrendTracker(TimeUnit.HOURS.toMillis(24), System.currentTimeMillis());
         this.idCounter = new AtomicInteger(1);
+        this.writeBehind = new WriteBehindFlusher(plugin, this, plugin.getIoExecutor());
 
         // Register serialization
         ConfigurationSerialization.registerClass(Suggestion.class);
     }
 
-    public void loadSuggestions() {
-        suggestionsFile = new File(plugin.getDataFolder(), plugin.getConfigManager().getStorageFileName());
-
-        if (!suggestionsFile.exists()) {
-            try {
-                suggestionsFile.getParentFile().mkdirs();
-                suggestionsFile.createNewFile();
-            } catch (IOException e) {
-                plugin.getLogger().severe("Could not create suggestions file!");
-                e.printStackTrace();
-                return;
-            }
-        }
-
-        FileConfiguration config = YamlConfiguration.loadConfiguration(suggestionsFile);
-
-        // Load suggestions
-        if (config.contains("suggestions")) {
-            for (String key : config.getConfigurationSection("suggestions").getKeys(false)) {
-                try {
-                    Suggestion suggestion = (Suggestion) config.get("suggestions." + key);
-                    if (suggestion != null) {
-                        suggestions.put(key, suggestion);
-                        // Update counter to avoid ID conflicts
-                        try {
-                            int id = Integer.parseInt(key.substring(2)); // Remove "s-" prefix
-                            if (id >= idCounter.get()) {
-                                idCounter.set(id + 1);
-                            }
-                        } catch (NumberFormatException e) {
-                            // Ignore malformed IDs
-                        }
-                    }
-                } catch (Exception e) {
-                    plugin.getLogger().warning("Could not load suggestion with key: " + key);
-                    e.printStackTrace();
+    /**
+     * Loads suggestions on the I/O thread. Until the load completes, {@link #isLoaded()} is
+     * false and callers must not read or change suggestions. Changes not saved yet are written to
+     * the previous store first.
+     *
+     * @return completes on the main thread once the suggestions can be used
+     */
+    public CompletableFuture<Void> loadSuggestions() {
+        long start = System.currentTimeMillis();
+        applyPendingVotes();
+        writeBehind.flush();
+        loaded = false;
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        // Store construction reads the config, so it happens here on the main thread
+        SuggestionStore store = createStore();
+        File legacyFile = new File(plugin.getDataFolder(), plugin.getConfigManager().getStorageFileName());
+        PlayerDictionaryFile dictionaryFile = new PlayerDictionaryFile(
+                new File(plugin.getDataFolder(), plugin.getConfigManager().getPlayerDictionaryFileName()),
+                plugin.getLogger(), PlayerDictionary.getInstance());
+
+        writeBehind.open(dictionaryFile, store, () -> store instanceof YamlSuggestionStore
+                ? store.load()
+                : StoreMigrator.loadMigrating(legacyFile, store, plugin.getLogger())
+        ).whenComplete((result, error) -> {
+            if (!plugin.isEnabled()) return;
+
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (error != null) {
+                    // Stay unloaded so nothing overwrites the data that failed to load
+                    plugin.getLogger().severe("Could not load suggestions!");
+                    error.printStackTrace();
+                    done.completeExceptionally(error);
+                    return;
                 }
-            }
+
+                applyLoaded(result);
+                plugin.getLogger().info("Loaded " + suggestions.size() + " suggestions in "
+                        + (System.currentTimeMillis() - start) + "ms");
+                done.complete(null);
+            });
+        });
+        return done;
+    }
+
+    private void applyLoaded(Map<Integer, Suggestion> result) {
+        suggestions.clear();
+        suggestionsByAuthor.clear();
+        votesByPlayer.clear();
+        sortIndexes.values().forEach(RankedIdTree::clear);
+        searchIndex.clear();
+        duplicateIndex.clear();
+        voteQueue.clear();
+        trends = new TrendTracker(plugin.getConfigManager().getTrendingHalfLifeMillis(), System.currentTimeMillis());
+        int maxId = 0;
+        for (Suggestion suggestion : result.values()) {
+            suggestions.put(suggestion.getId(), suggestion);
+            indexAuthor(suggestion);
+            indexVoters(suggestion);
+            trends.track(suggestion, true);
+            indexSortKeys(suggestion);
+            searchIndex.index(suggestion);
+            duplicateIndex.index(suggestion);
+            maxId = Math.max(maxId, suggestion.getId());
         }
 
-        plugin.getLogger().info("Loaded " + suggestions.size() + " suggestions");
+        // New IDs continue after the highest one in use, so they can never collide
+        idCounter.set(Math.max(idCounter.get(), maxId + 1));
+
+        writeBehind.start();
+        if (trendTask != null) {
+            trendTask.cancel();
+        }
+        trendTask = Bukkit.getScheduler().runTaskTimer(plugin, this::decayTrends,
+                TREND_TICK_INTERVAL, TREND_TICK_INTERVAL);
+        loaded = true;
     }
 
-    public void saveSuggestions() {
-        if (suggestionsFile == null) return;
+    /**
+     * Decay tick for TRENDING. Decay alone never reorders suggestions, so the index only has to
+     * be refreshed when the trend weights are rebased, about once per half-life.
+     */
+    private void decayTrends() {
+        long now = System.currentTimeMillis();
+        if (!trends.needsRebase(now)) return;
+
+        trends.rebase(now);
+        RankedIdTree index = sortIndexes.get(SortType.TRENDING);
+        suggestions.forEachValue(suggestion ->
+                index.put(suggestion.getId(), SortType.TRENDING.sortKey(suggestion, trends)));
+    }
 
-        FileConfiguration config = new YamlConfiguration();
+    /**
+     * Whether the initial load has finished and suggestions can be used.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
 
-        // Save all suggestions
-        for (Map.Entry<String, Suggestion> entry : suggestions.entrySet()) {
-            config.set("suggestions." + entry.getKey(), entry.getValue());
+    private SuggestionStore createStore() {
+        ConfigManager config = plugin.getConfigManager();
+
+        switch (config.getStorageType().toLowerCase()) {
+            case "sqlite":
+                return new SqliteSuggestionStore(new File(plugin.getDataFolder(), config.getSqliteFileName()));
+            case "sharded":
+                return new ShardedSuggestionStore(new File(plugin.getDataFolder(), config.getShardDirectory()),
+                        plugin.getLogger(), config.getShardCount());
+            case "binary":
+                return new BinarySuggestionStore(new File(plugin.getDataFolder(), config.getBinaryFileName()),
+                        plugin.getLogger(), writeBehind.getMetrics(), config.getJournalCompactThreshold(),
+                        config.isJournalSyncWrites(), config.isBinaryCompressed());
+            case "yaml":
+                break;
+            default:
+                plugin.getLogger().warning("Unknown storage type '" + config.getStorageType() + "', using yaml");
+                break;
         }
 
-        try {
-            config.save(suggestionsFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Could not save suggestions!");
-            e.printStackTrace();
+        return new YamlSuggestionStore(new File(plugin.getDataFolder(), config.getStorageFileName()),
+                plugin.getLogger(), writeBehind.getMetrics(), config.getJournalCompactThreshold(),
+                config.isJournalSyncWrites());
+    }
+
+    /**
+     * Writes all pending changes without waiting for the disk.
+     *
+     * @return completes on the I/O thread once the changes have been written
+     */
+    public CompletableFuture<Void> saveSuggestions() {
+        applyPendingVotes();
+        return writeBehind.flushAsync();
+    }
+
+    public void shutdown() {
+        applyPendingVotes();
+        if (trendTask != null) {
+            trendTask.cancel();
+            trendTask = null;
         }
+        writeBehind.shutdown();
     }
 
-    public String createSuggestion(String title, String description, UUID authorUUID, String authorName) {
+    /**
+     * @return the ID of the new suggestion, or -1 if the player reached the maximum
+     */
+    public int createSuggestion(String title, String description, UUID authorUUID, String authorName) {
+        checkMainThread("createSuggestion");
         // Check if player has reached maximum suggestions
-        int maxSuggestions = plugin.getConfigManager().getMaxSuggestionsPerPlayer();
-        if (maxSuggestions > 0) {
-            long playerSuggestions = suggestions.values().stream()
-                    .filter(s -> s.getAuthorUUID().equals(authorUUID))
-                    .count();
-
-            if (playerSuggestions >= maxSuggestions) {
-                return null; // Max reached
-            }
+        if (!canPlayerCreateSuggestion(authorUUID)) {
+            return -1; // Max reached
         }
 
-        String id = generateId();
+        int id = idCounter.getAndIncrement();
         Suggestion suggestion = new Suggestion(id, title, description, authorUUID, authorName);
         suggestions.put(id, suggestion);
-        saveSuggestions();
+        indexAuthor(suggestion);
+        trends.track(suggestion, false);
+        indexSortKeys(suggestion);
+        searchIndex.index(suggestion);
+        duplicateIndex.index(suggestion);
+        writeBehind.markDirty(id);
 
         return id;
     }
 
-    public boolean deleteSuggestion(String id) {
-        if (suggestions.containsKey(id)) {
-            suggestions.remove(id);
-            saveSuggestions();
+    public boolean deleteSuggestion(int id) {
+        checkMainThread("deleteSuggestion");
+        applyPendingVotes();
+        Suggestion removed = suggestions.remove(id);
+        if (removed != null) {
+            unindexAuthor(removed);
+            unindexVoters(removed);
+            for (RankedIdTree index : sortIndexes.values()) {
+                index.remove(id);
+            }
+            searchIndex.remove(id);
+            duplicateIndex.remove(id);
+            trends.remove(id);
+            writeBehind.markDirty(id);
             return true;
         }
         return false;
     }
 
-    public Suggestion getSuggestion(String id) {
+    private void indexAuthor(Suggestion suggestion) {
+        suggestionsByAuthor.computeIfAbsent(suggestion.getAuthorUUID(), key -> new IntSortedSet())
+                .add(suggestion.getId());
+    }
+
+    // Same idea as the server's own async catcher: a change from another thread is a bug, not a race to tolerate
+    private void checkMainThread(String operation) {
+        if (!Bukkit.isPrimaryThread()) {
+            throw new IllegalStateException(operation + " must be called on the main thread, not "
+                    + Thread.currentThread().getName());
+        }
+    }
+
+    private void indexVoters(Suggestion suggestion) {
+        VoteBitmap.PlayerIterator upvoters = suggestion.upvoterIterator();
+        while (upvoters.hasNext()) {
+            indexVote(upvoters.next(), suggestion.getId());
+        }
+        VoteBitmap.PlayerIterator downvoters = suggestion.downvoterIterator();
+        while (downvoters.hasNext()) {
+            indexVote(downvoters.next(), suggestion.getId());
+        }
+    }
+
+    private void unindexVoters(Suggestion suggestion) {
+        VoteBitmap.PlayerIterator upvoters = suggestion.upvoterIterator();
+        while (upvoters.hasNext()) {
+            unindexVote(upvoters.next(), suggestion.getId());
+        }
+        VoteBitmap.PlayerIterator downvoters = suggestion.downvoterIterator();
+        while (downvoters.hasNext()) {
+            unindexVote(downvoters.next(), suggestion.getId());
+        }
+    }
+
+    private void indexVote(int player, int suggestionId) {
+        IntSortedSet ids = votesByPlayer.get(player);
+        if (ids == null) {
+            ids = new IntSortedSet();
+            votesByPlayer.put(player, ids);
+        }
+        ids.add(suggestionId);
+    }
+
+    private void unindexVote(int player, int suggestionId) {
+        IntSortedSet ids = votesByPlayer.get(player);
+        if (ids != null && ids.remove(suggestionId) && ids.isEmpty()) {
+            votesByPlayer.remove(player);
+        }
+    }
+
+    private void unindexAuthor(Suggestion suggestion) {
+        IntSortedSet ids = suggestionsByAuthor.get(suggestion.getAuthorUUID());
+        if (ids != null && ids.remove(suggestion.getId()) && ids.isEmpty()) {
+            suggestionsByAuthor.remove(suggestion.getAuthorUUID());
+        }
+    }
+
+    // Cheap when nothing moved: each index only reorders if the key actually changed
+    private void indexSortKeys(Suggestion suggestion) {
+        for (Map.Entry<SortType, RankedIdTree> entry : sortIndexes.entrySet()) {
+            entry.getValue().put(suggestion.getId(), entry.getKey().sortKey(suggestion, trends));
+        }
+    }
+
+    public Suggestion getSuggestion(int id) {
         return suggestions.get(id);
     }
 
-    public List<Suggestion> getAllSuggestions() {
-        return new ArrayList<>(suggestions.values());
+    /**
+     * Resolves an ID typed by a player, in display form ({@code s-007}) or as a plain number.
+     */
+    public Suggestion getSuggestion(String displayId) {
+        int id = Suggestion.parseId(displayId);
+        return id < 0 ? null : suggestions.get(id);
     }
 
-    public List<Suggestion> getSuggestionsByPlayer(UUID playerUUID) {
-        return suggestions.values().stream()
-                .filter(s -> s.getAuthorUUID().equals(playerUUID))
-                .collect(Collectors.toList());
+    /**
+     * All suggestions in creation (ID) order.
+     */
+    public List<Suggestion> getAllSuggestions() {
+        return getSortedSuggestions(SortType.OLDEST);
     }
 
-    public List<Suggestion> getSortedSuggestions(SortType sortType) {
-        List<Suggestion> sorted = new ArrayList<>(suggestions.values());
+    /**
+     * The player's suggestions in creation order, read from the author index.
+     */
+    public List<Suggestion> getSuggestionsByPlayer(UUID playerUUID) {
+        IntSortedSet ids = suggestionsByAuthor.get(playerUUID);
+        if (ids == null) return new ArrayList<>();
 
-        switch (sortType) {
-            case RECENT:
-                sorted.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
-                break;
-            case POPULAR:
-                sorted.sort((a, b) -> Integer.compare(b.getScore(), a.getScore()));
-                break;
+        List<Suggestion> playerSuggestions = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            playerSuggestions.add(suggestions.get(ids.get(i)));
         }
+        return playerSuggestions;
+    }
 
+    /**
+     * All suggestions in the given order, read straight from the sort index.
+     */
+    public List<Suggestion> getSortedSuggestions(SortType sortType) {
+        RankedIdTree index = sortIndexes.get(sortType);
+        List<Suggestion> sorted = new ArrayList<>(index.size());
+        index.forEach(0, index.size(), id -> sorted.add(suggestions.get(id)));
         return sorted;
     }
 
     public List<Suggestion> getSortedSuggestionsByPlayer(UUID playerUUID, SortType sortType) {
         List<Suggestion> playerSuggestions = getSuggestionsByPlayer(playerUUID);
+        // Stable over creation order, so ties come out the same way as in the index
+        playerSuggestions.sort(Comparator.comparingLong(suggestion -> sortType.sortKey(suggestion, trends)));
+        return playerSuggestions;
+    }
 
-        switch (sortType) {
-            case RECENT:
-                playerSuggestions.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
-                break;
-            case POPULAR:
-                playerSuggestions.sort((a, b) -> Integer.compare(b.getScore(), a.getScore()));
-                break;
+    /**
+     * One page of suggestions in the given order. The page number is clamped to the pages that
+     * exist. Unfiltered pages are read from the sort index in O(log n + pageSize); filtered ones
+     * go through {@link #findSuggestions(SuggestionFilter, SortType)}.
+     */
+    public SuggestionPage getPage(SortType sortType, SuggestionFilter filter, int page, int pageSize) {
+        List<Suggestion> matches = filter.isAll() ? null : findSuggestions(filter, sortType);
+        int total = matches == null ? suggestions.size() : matches.size();
+        int totalPages = Math.max(1, (total + pageSize - 1) / pageSize);
+        page = Math.max(1, Math.min(page, totalPages));
+        return slice(sortType, matches, (page - 1) * pageSize, pageSize, total);
+    }
+
+    /**
+     * The page that continues after the cursor, even if suggestions were added, removed or
+     * re-scored in between. Returns the last page if nothing is left after the cursor.
+     */
+    public SuggestionPage getPageAfter(SortType sortType, SuggestionFilter filter, SuggestionPage.Cursor cursor,
+                                       int pageSize) {
+        if (!filter.isAll()) {
+            return getFilteredPageAfter(sortType, filter, cursor, pageSize);
         }
 
-        return playerSuggestions;
+        int total = suggestions.size();
+        int from = sortIndexes.get(sortType).countUpTo(cursor.getSortKey(), cursor.getId());
+        if (from >= total) {
+            return getPage(sortType, filter, Integer.MAX_VALUE, pageSize);
+        }
+        return slice(sortType, null, from, pageSize, total);
+    }
+
+    /**
+     * The page that ends right before the cursor, the counterpart of
+     * {@link #getPageAfter(SortType, SuggestionFilter, SuggestionPage.Cursor, int)}. Returns the
+     * first page once less than a page is left before the cursor.
+     */
+    public SuggestionPage getPageBefore(SortType sortType, SuggestionFilter filter, SuggestionPage.Cursor cursor,
+                                        int pageSize) {
+        if (!filter.isAll()) {
+            return getFilteredPageBefore(sortType, filter, cursor, pageSize);
+        }
+
+        int to = sortIndexes.get(sortType).countBefore(cursor.getSortKey(), cursor.getId());
+        if (to <= pageSize) {
+            return getPage(sortType, filter, 1, pageSize);
+        }
+        return slice(sortType, null, to - pageSize, pageSize, suggestions.size());
+    }
+
+    // One pass over the planned candidates: matches up to the cursor are only counted, and of
+    // those after it a bounded heap keeps the first page, so only the page itself gets sorted
+    private SuggestionPage getFilteredPageAfter(SortType sortType, SuggestionFilter filter,
+                                                SuggestionPage.Cursor cursor, int pageSize) {
+        PageSelector selector = new PageSelector(pageSize, false);
+        int[] counts = new int[2]; // matches up to the cursor, all matches
+        forEachMatch(filter, suggestion -> {
+            long key = sortType.sortKey(suggestion, trends);
+            counts[1]++;
+            if (key < cursor.getSortKey() || (key == cursor.getSortKey() && suggestion.getId() <= cursor.getId())) {
+                counts[0]++;
+            } else {
+                selector.offer(key, suggestion.getId());
+            }
+        });
+
+        int from = counts[0];
+        int total = counts[1];
+        if (from >= total) {
+            return getPage(sortType, filter, Integer.MAX_VALUE, pageSize);
+        }
+        return selectedPage(selector, from, pageSize, total);
+    }
+
+    // Mirrors getFilteredPageAfter: the heap keeps the last page of the matches before the cursor
+    private SuggestionPage getFilteredPageBefore(SortType sortType, SuggestionFilter filter,
+                                                 SuggestionPage.Cursor cursor, int pageSize) {
+        PageSelector selector = new PageSelector(pageSize, true);
+        int[] counts = new int[2]; // matches before the cursor, all matches
+        forEachMatch(filter, suggestion -> {
+            long key = sortType.sortKey(suggestion, trends);
+            counts[1]++;
+            if (key < cursor.getSortKey() || (key == cursor.getSortKey() && suggestion.getId() < cursor.getId())) {
+                counts[0]++;
+                selector.offer(key, suggestion.getId());
+            }
+        });
+
+        if (counts[0] <= pageSize) {
+            return getPage(sortType, filter, 1, pageSize);
+        }
+        return selectedPage(selector, counts[0] - pageSize, pageSize, counts[1]);
+    }
+
+    private SuggestionPage selectedPage(PageSelector selector, int from, int pageSize, int total) {
+        selector.sort();
+        List<Suggestion> slice = new ArrayList<>(selector.size);
+        for (int i = 0; i < selector.size; i++) {
+            slice.add(suggestions.get(selector.ids[i]));
+        }
+
+        SuggestionPage.Cursor previous = null;
+        if (from > 0) {
+            previous = new SuggestionPage.Cursor(selector.keys[0], selector.ids[0]);
+        }
+        SuggestionPage.Cursor next = null;
+        if (from + slice.size() < total) {
+            next = new SuggestionPage.Cursor(selector.keys[selector.size - 1], selector.ids[selector.size - 1]);
+        }
+        return new SuggestionPage(slice, from, pageSize, total, previous, next);
+    }
+
+    // Matches are null for unfiltered pages, which are read from the sort index instead
+    private SuggestionPage slice(SortType sortType, List<Suggestion> matches, int from, int pageSize, int total) {
+        List<Suggestion> slice = new ArrayList<>(Math.min(pageSize, Math.max(0, total - from)));
+        if (matches == null) {
+            sortIndexes.get(sortType).forEach(from, pageSize, id -> slice.add(suggestions.get(id)));
+        } else {
+            slice.addAll(matches.subList(Math.min(from, matches.size()), Math.min(from + pageSize, matches.size())));
+        }
+
+        SuggestionPage.Cursor previous = null;
+        if (!slice.isEmpty() && from > 0) {
+            Suggestion first = slice.get(0);
+            previous = new SuggestionPage.Cursor(sortType.sortKey(first, trends), first.getId());
+        }
+        SuggestionPage.Cursor next = null;
+        if (!slice.isEmpty() && from + slice.size() < total) {
+            Suggestion last = slice.get(slice.size() - 1);
+            next = new SuggestionPage.Cursor(sortType.sortKey(last, trends), last.getId());
+        }
+        return new SuggestionPage(slice, from, pageSize, total, previous, next);
+    }
+
+    /**
+     * Every suggestion matching the filter, in the given order.
+     * <p>
+     * The query starts from the index that yields the fewest candidates: the search index for
+     * text, the author or voter index, or a rank range of the POPULAR or RECENT index for score
+     * and date bounds. Only those candidates are checked against the remaining conditions, text
+     * included, and sorted.
+     */
+    public List<Suggestion> findSuggestions(SuggestionFilter filter, SortType sortType) {
+        List<Suggestion> matches = new ArrayList<>();
+        forEachMatch(filter, matches::add);
+
+        matches.sort(Comparator.comparingLong((Suggestion suggestion) -> sortType.sortKey(suggestion, trends))
+                .thenComparingInt(Suggestion::getId));
+        return matches;
+    }
+
+    // Every suggestion matching the filter, in no particular order
+    private void forEachMatch(SuggestionFilter filter, Consumer<Suggestion> action) {
+        QueryPlan plan = planQuery(filter);
+        IntPredicate textMatch = filter.getText() == null || plan.coversText ? null
+                : searchIndex.matcher(filter.getText());
+        plan.forEachCandidate(id -> {
+            Suggestion suggestion = suggestions.get(id);
+            if (suggestion != null && filter.matches(suggestion) && (textMatch == null || textMatch.test(id))) {
+                action.accept(suggestion);
+            }
+        });
+    }
+
+    /**
+     * Which index a query would start from and how many candidates it would check, e.g. for
+     * {@code /psadmin find}.
+     */
+    public String describeQueryPlan(SuggestionFilter filter) {
+        QueryPlan plan = planQuery(filter);
+        return plan.name + " (" + plan.candidates + " candidates of " + suggestions.size() + ")";
     }
 
-    public Suggestion.VoteResult vote(String suggestionId, UUID playerUUID, Suggestion.VoteType voteType) {
+    private QueryPlan planQuery(SuggestionFilter filter) {
+        QueryPlan best = new QueryPlan("full scan", suggestions.size(),
+                visitor -> sortIndexes.get(SortType.OLDEST).forEach(0, suggestions.size(), visitor));
+
+        if (filter.getAuthor() != null) {
+            IntSortedSet ids = suggestionsByAuthor.get(filter.getAuthor());
+            int count = ids == null ? 0 : ids.size();
+            if (count < best.candidates) {
+                best = new QueryPlan("author index", count, visitor -> {
+                    for (int i = 0; i < count; i++) {
+                        visitor.accept(ids.get(i));
+                    }
+                });
+            }
+        }
+
+        if (filter.getVoter() != null) {
+            int player = PlayerDictionary.getInstance().lookup(filter.getVoter());
+            IntSortedSet ids = player < 0 ? null : votesByPlayer.get(player);
+            int count = ids == null ? 0 : ids.size();
+            if (count < best.candidates) {
+                best = new QueryPlan("voter index", count, visitor -> {
+                    for (int i = 0; i < count; i++) {
+                        visitor.accept(ids.get(i));
+                    }
+                });
+            }
+        }
+
+        if (filter.hasScoreRange()) {
+            // POPULAR is keyed by -score, so a score range is one run of ranks
+            RankedIdTree index = sortIndexes.get(SortType.POPULAR);
+            int from = filter.getMaxScore() == Integer.MAX_VALUE ? 0
+                    : index.countBefore(-(long) filter.getMaxScore(), Integer.MIN_VALUE);
+            int to = filter.getMinScore() == Integer.MIN_VALUE ? index.size()
+                    : index.countUpTo(-(long) filter.getMinScore(), Integer.MAX_VALUE);
+            best = cheaper(best, "score index", index, from, to);
+        }
+
+        if (filter.getCreatedAfter() != null || filter.getCreatedBefore() != null) {
+            // RECENT is keyed by negated creation time, newest first
+            RankedIdTree index = sortIndexes.get(SortType.RECENT);
+            int from = filter.getCreatedBefore() == null ? 0
+                    : index.countBefore(SortType.recentKey(filter.getCreatedBefore()), Integer.MIN_VALUE);
+            int to = filter.getCreatedAfter() == null ? index.size()
+                    : index.countUpTo(SortType.recentKey(filter.getCreatedAfter()), Integer.MAX_VALUE);
+            best = cheaper(best, "date index", index, from, to);
+        }
+
+        // Otherwise the text is checked per candidate of the cheaper plan
+        if (filter.getText() != null && searchIndex.estimateMatches(filter.getText()) < best.candidates) {
+            int[] ids = searchIndex.search(filter.getText(), Integer.MAX_VALUE);
+            best = new QueryPlan("search index", ids.length, true, visitor -> {
+                for (int id : ids) {
+                    visitor.accept(id);
+                }
+            });
+        }
+
+        return best;
+    }
+
+    private QueryPlan cheaper(QueryPlan best, String name, RankedIdTree index, int from, int to) {
+        int count = Math.max(0, to - from);
+        if (count >= best.candidates) return best;
+        return new QueryPlan(name, count, visitor -> index.forEach(from, count, visitor));
+    }
+
+    // The smallest (sort key, ID) pairs offered, or the largest if descending, in a heap bounded to one page
+    private static final class PageSelector {
+        private final long[] keys;
+        private final int[] ids;
+        private final boolean descending;
+        private int size;
+
+        private PageSelector(int capacity, boolean descending) {
+            this.keys = new long[capacity];
+            this.ids = new int[capacity];
+            this.descending = descending;
+        }
+
+        private void offer(long key, int id) {
+            if (size < keys.length) {
+                keys[size] = key;
+                ids[size] = id;
+                siftUp(size++);
+            } else if (size > 0 && before(key, id, 0)) {
+                keys[0] = key;
+                ids[0] = id;
+                siftDown(0, size);
+            }
+        }
+
+        // Heap sort in place, leaving the pairs in ascending order either way
+        private void sort() {
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            if (descending) {
+                for (int i = 0, j = size - 1; i < j; i++, j--) {
+                    swap(i, j);
+                }
+            }
+        }
+
+        // Whether the pair belongs on the page before the one at the index
+        private boolean before(long key, int id, int index) {
+            boolean smaller = key < keys[index] || (key == keys[index] && id < ids[index]);
+            boolean larger = key > keys[index] || (key == keys[index] && id > ids[index]);
+            return descending ? larger : smaller;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!before(keys[parent], ids[parent], index)) break;
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index, int heapSize) {
+            while (true) {
+                int child = index * 2 + 1;
+                if (child >= heapSize) break;
+                if (child + 1 < heapSize && before(keys[child], ids[child], child + 1)) child++;
+                if (!before(keys[index], ids[index], child)) break;
+                swap(index, child);
+                index = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long key = keys[a];
+            keys[a] = keys[b];
+            keys[b] = key;
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+        }
+    }
+
+    private static final class QueryPlan {
+        private final String name;
+        private final int candidates;
+        // Whether every candidate already matches the filter text
+        private final boolean coversText;
+        private final Consumer<IntConsumer> source;
+
+        private QueryPlan(String name, int candidates, Consumer<IntConsumer> source) {
+            this(name, candidates, false, source);
+        }
+
+        private QueryPlan(String name, int candidates, boolean coversText, Consumer<IntConsumer> source) {
+            this.name = name;
+            this.candidates = candidates;
+            this.coversText = coversText;
+            this.source = source;
+        }
+
+        private void forEachCandidate(IntConsumer visitor) {
+            source.accept(visitor);
+        }
+    }
+
+    /**
+     * Full-text search over titles and descriptions, best match first. Every query word must
+     * match a word of the suggestion, either exactly or as its beginning.
+     */
+    public List<Suggestion> searchSuggestions(String query, int limit) {
+        int[] ids = searchIndex.search(query, limit);
+        List<Suggestion> results = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            results.add(suggestions.get(id));
+        }
+        return results;
+    }
+
+    /**
+     * Existing suggestions that are most likely the same idea as the given text, most similar
+     * first. Empty if duplicate checks are disabled.
+     */
+    public List<DuplicateIndex.Match> findDuplicates(String title, String description) {
+        ConfigManager config = plugin.getConfigManager();
+        if (!config.isDuplicateCheckEnabled()) return new ArrayList<>();
+
+        return duplicateIndex.findSimilar(title, description, config.getDuplicateThreshold(),
+                config.getMaxDuplicatesShown());
+    }
+
+    /**
+     * Every suggestion the player voted on, with the vote, oldest suggestion first. Read from the
+     * voter index, so it costs O(votes of that player) rather than a pass over all suggestions.
+     */
+    public Map<Suggestion, Suggestion.VoteType> getVotesByPlayer(UUID playerUUID) {
+        Map<Suggestion, Suggestion.VoteType> votes = new LinkedHashMap<>();
+        int player = PlayerDictionary.getInstance().lookup(playerUUID);
+        IntSortedSet ids = player < 0 ? null : votesByPlayer.get(player);
+        if (ids == null) return votes;
+
+        for (int i = 0; i < ids.size(); i++) {
+            Suggestion suggestion = suggestions.get(ids.get(i));
+            votes.put(suggestion, suggestion.getVoteType(player));
+        }
+        return votes;
+    }
+
+    public int getVoteCountByPlayer(UUID playerUUID) {
+        int player = PlayerDictionary.getInstance().lookup(playerUUID);
+        IntSortedSet ids = player < 0 ? null : votesByPlayer.get(player);
+        return ids == null ? 0 : ids.size();
+    }
+
+    /**
+     * Removes every vote the player cast. Touches only the suggestions they voted on.
+     * <p>
+     * This is not a complete erasure of the player: their UUID stays in the player dictionary
+     * ({@code players.dat}), and in journal records until the next compaction.
+     *
+     * @return how many votes were removed
+     */
+    public int eraseVotes(UUID playerUUID) {
+        checkMainThread("eraseVotes");
+        applyPendingVotes();
+        int player = PlayerDictionary.getInstance().lookup(playerUUID);
+        IntSortedSet ids = player < 0 ? null : votesByPlayer.remove(player);
+        if (ids == null) return 0;
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < ids.size(); i++) {
+            Suggestion suggestion = suggestions.get(ids.get(i));
+            int scoreBefore = suggestion.getScore();
+            suggestion.setVote(playerUUID, null);
+            // Take the votes out of the trending weight before TRENDING is re-keyed
+            trends.recordVote(suggestion.getId(), suggestion.getScore() - scoreBefore, now);
+            indexSortKeys(suggestion);
+            writeBehind.markVote(suggestion.getId(), playerUUID);
+        }
+        return ids.size();
+    }
+
+    /**
+     * Toggles the player's vote. The result is known immediately, but the vote is only queued and
+     * applied with the rest of this tick's votes by {@link #applyPendingVotes()}.
+     *
+     * @return the outcome of the click, or null if the suggestion is missing or the player's own
+     */
+    public Suggestion.VoteResult vote(int suggestionId, UUID playerUUID, Suggestion.VoteType voteType) {
+        checkMainThread("vote");
         Suggestion suggestion = suggestions.get(suggestionId);
         if (suggestion == null) {
             return null;
@@ -175,36 +820,115 @@ public class SuggestionManager {
             return null;
         }
 
-        Suggestion.VoteResult result = suggestion.vote(playerUUID, voteType);
-        saveSuggestions();
-        return result;
+        int player = PlayerDictionary.getInstance().intern(playerUUID);
+        int state = voteQueue.toggle(suggestion, playerUUID, player, voteType);
+        if (!voteApplyScheduled) {
+            voteApplyScheduled = true;
+            Bukkit.getScheduler().runTask(plugin, this::applyPendingVotes);
+        }
+
+        switch (state) {
+            case Suggestion.VOTE_UP:
+                return Suggestion.VoteResult.UPVOTED;
+            case Suggestion.VOTE_DOWN:
+                return Suggestion.VoteResult.DOWNVOTED;
+            default:
+                return Suggestion.VoteResult.REMOVED;
+        }
+    }
+
+    /**
+     * Applies the votes queued since the last tick: each player's final vote per suggestion is
+     * written to the vote sets and the voter index, and every touched suggestion is re-sorted and
+     * marked for the next flush once. Votes that ended up unchanged are dropped.
+     */
+    public void applyPendingVotes() {
+        checkMainThread("applyPendingVotes");
+        voteApplyScheduled = false;
+        if (voteQueue.isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        IntSortedSet touched = new IntSortedSet();
+        int applied = 0;
+        for (VoteQueue.PendingVote vote : voteQueue.drain()) {
+            Suggestion suggestion = suggestions.get(vote.getSuggestionId());
+            if (suggestion == null || suggestion.getVoteState(vote.getPlayer()) == vote.getState()) continue;
+
+            int scoreBefore = suggestion.getScore();
+            if (vote.getState() == Suggestion.VOTE_NONE) {
+                suggestion.setVote(vote.getPlayerUUID(), null);
+                unindexVote(vote.getPlayer(), suggestion.getId());
+            } else {
+                suggestion.setVote(vote.getPlayerUUID(), vote.getState() == Suggestion.VOTE_UP
+                        ? Suggestion.VoteType.UPVOTE : Suggestion.VoteType.DOWNVOTE);
+                indexVote(vote.getPlayer(), suggestion.getId());
+            }
+            trends.recordVote(suggestion.getId(), suggestion.getScore() - scoreBefore, now);
+            writeBehind.markVote(suggestion.getId(), vote.getPlayerUUID());
+            touched.add(suggestion.getId());
+            applied++;
+        }
+
+        for (int i = 0; i < touched.size(); i++) {
+            indexSortKeys(suggestions.get(touched.get(i)));
+        }
+        voteQueue.recordApplied(applied);
+    }
+
+    /**
+     * The player's vote including clicks not applied yet, for showing in GUIs.
+     */
+    public Suggestion.VoteType getVoteType(Suggestion suggestion, UUID playerUUID) {
+        switch (getVoteState(suggestion, playerUUID)) {
+            case Suggestion.VOTE_UP:
+                return Suggestion.VoteType.UPVOTE;
+            case Suggestion.VOTE_DOWN:
+                return Suggestion.VoteType.DOWNVOTE;
+            default:
+                return null;
+        }
     }
 
-    public boolean editSuggestion(String id, String newTitle, String newDescription) {
+    public int getVoteState(Suggestion suggestion, UUID playerUUID) {
+        return voteQueue.getVoteState(suggestion, PlayerDictionary.getInstance().lookup(playerUUID));
+    }
+
+    public int getUpvoteCount(Suggestion suggestion) {
+        return voteQueue.getUpvoteCount(suggestion);
+    }
+
+    public int getDownvoteCount(Suggestion suggestion) {
+        return voteQueue.getDownvoteCount(suggestion);
+    }
+
+    public boolean editSuggestion(int id, String newTitle, String newDescription) {
+        checkMainThread("editSuggestion");
         Suggestion suggestion = suggestions.get(id);
         if (suggestion != null) {
             suggestion.setTitle(newTitle);
             suggestion.setDescription(newDescription);
-            saveSuggestions();
+            searchIndex.index(suggestion);
+            duplicateIndex.index(suggestion);
+            writeBehind.markDirty(id);
             return true;
         }
         return false;
     }
 
-    public boolean addAdminResponse(String id, String response) {
+    public boolean addAdminResponse(int id, String response) {
+        checkMainThread("addAdminResponse");
         Suggestion suggestion = suggestions.get(id);
         if (suggestion != null) {
             suggestion.setAdminResponse(response);
-            saveSuggestions();
+            writeBehind.markDirty(id);
             return true;
         }
         return false;
     }
 
     public int getPlayerSuggestionCount(UUID playerUUID) {
-        return (int) suggestions.values().stream()
-                .filter(s -> s.getAuthorUUID().equals(playerUUID))
-                .count();
+        IntSortedSet ids = suggestionsByAuthor.get(playerUUID);
+        return ids == null ? 0 : ids.size();
     }
 
     public boolean canPlayerCreateSuggestion(UUID playerUUID) {
@@ -214,20 +938,83 @@ public class SuggestionManager {
         return getPlayerSuggestionCount(playerUUID) < maxSuggestions;
     }
 
-    private String generateId() {
-        String id;
-        do {
-            id = "s-" + String.format("%03d", idCounter.getAndIncrement());
-        } while (suggestions.containsKey(id));
+    public int getTotalSuggestions() {
+        return suggestions.size();
+    }
 
-        return id;
+    public SearchIndex getSearchIndex() {
+        return searchIndex;
     }
 
-    public int getTotalSuggestions() {
-        return suggestions.size();
+    public VoteQueue getVoteQueue() {
+        return voteQueue;
+    }
+
+    public WriteBehindFlusher getWriteBehind() {
+        return writeBehind;
     }
 
+    /**
+     * Suggestions are listed by ascending sort key, then by ID.
+     */
     public enum SortType {
-        RECENT, POPULAR
+        // Creation order, used for admin listings
+        OLDEST {
+            @Override
+            long sortKey(Suggestion suggestion, TrendTracker trends) {
+                return 0;
+            }
+        },
+        RECENT {
+            @Override
+            long sortKey(Suggestion suggestion, TrendTracker trends) {
+                return recentKey(suggestion.getCreatedAt());
+            }
+        },
+        POPULAR {
+            @Override
+            long sortKey(Suggestion suggestion, TrendTracker trends) {
+                return -suggestion.getScore();
+            }
+        },
+        // Most votes lately, with older votes counting less and less
+        TRENDING {
+            @Override
+            long sortKey(Suggestion suggestion, TrendTracker trends) {
+                return Rankings.descending(trends.getWeight(suggestion.getId()));
+            }
+        },
+        // Highest confidence that voters like it
+        BEST {
+            @Override
+            long sortKey(Suggestion suggestion, TrendTracker trends) {
+                return Rankings.descending(Rankings.wilsonLowerBound(
+                        suggestion.getUpvoteCount(), suggestion.getDownvoteCount()));
+            }
+        },
+        // Many votes, split evenly
+        CONTROVERSIAL {
+            @Override
+            long sortKey(Suggestion suggestion, TrendTracker trends) {
+                return Rankings.descending(Rankings.controversy(
+                        suggestion.getUpvoteCount(), suggestion.getDownvoteCount()));
+            }
+        };
+
+        abstract long sortKey(Suggestion suggestion, TrendTracker trends);
+
+        // Newest first, to the microsecond
+        static long recentKey(LocalDateTime createdAt) {
+            return -(createdAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + createdAt.getNano() / 1_000);
+        }
+
+        /**
+         * The sort the main GUI's sort button switches to next.
+         */
+        public SortType next() {
+            SortType[] values = values();
+            SortType next = values[(ordinal() + 1) % values.length];
+            return next == OLDEST ? next.next() : next;
+        }
     }
 }
\ No newline at end of file
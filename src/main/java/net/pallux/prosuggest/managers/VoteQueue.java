@@ -0,0 +1,139 @@
+package net.pallux.prosuggest.managers;
+
+import net.pallux.prosuggest.models.Suggestion;
+import net.pallux.prosuggest.util.IntObjectMap;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Vote clicks waiting to be applied to their suggestions, collected over one tick.
+ * <p>
+ * Only the final state per player and suggestion is kept, so a player toggling the same button
+ * over and over costs one change at most, or none if they end up where they started. Until the
+ * batch is applied, {@link #getVoteState}, {@link #getUpvoteCount} and {@link #getDownvoteCount}
+ * answer as if it already had been, so GUIs can show the outcome right away. Main thread only.
+ */
+public class VoteQueue {
+
+    private final Map<Long, PendingVote> pending;
+    // Suggestion ID -> {upvote change, downvote change} of the pending votes
+    private final IntObjectMap<int[]> countChanges;
+    private long clicksQueued;
+    private long votesApplied;
+
+    public VoteQueue() {
+        this.pending = new LinkedHashMap<>();
+        this.countChanges = new IntObjectMap<>();
+    }
+
+    /**
+     * Toggles the vote on top of whatever is already pending, like a click on the vote button.
+     *
+     * @return the player's vote state after the click, e.g. {@link Suggestion#VOTE_NONE} if it took the vote back
+     */
+    public int toggle(Suggestion suggestion, UUID playerUUID, int player, Suggestion.VoteType voteType) {
+        long key = ((long) suggestion.getId() << 32) | (player & 0xFFFFFFFFL);
+        PendingVote vote = pending.get(key);
+        int current = vote != null ? vote.state : suggestion.getVoteState(player);
+        int clicked = voteType == Suggestion.VoteType.UPVOTE ? Suggestion.VOTE_UP : Suggestion.VOTE_DOWN;
+        int next = current == clicked ? Suggestion.VOTE_NONE : clicked;
+
+        if (vote == null) {
+            pending.put(key, new PendingVote(suggestion.getId(), playerUUID, player, next));
+        } else {
+            vote.state = next;
+        }
+
+        int[] changes = countChanges.get(suggestion.getId());
+        if (changes == null) {
+            changes = new int[2];
+            countChanges.put(suggestion.getId(), changes);
+        }
+        changes[0] += (next == Suggestion.VOTE_UP ? 1 : 0) - (current == Suggestion.VOTE_UP ? 1 : 0);
+        changes[1] += (next == Suggestion.VOTE_DOWN ? 1 : 0) - (current == Suggestion.VOTE_DOWN ? 1 : 0);
+
+        clicksQueued++;
+        return next;
+    }
+
+    public int getVoteState(Suggestion suggestion, int player) {
+        if (player < 0 || pending.isEmpty()) return suggestion.getVoteState(player);
+
+        PendingVote vote = pending.get(((long) suggestion.getId() << 32) | (player & 0xFFFFFFFFL));
+        return vote != null ? vote.state : suggestion.getVoteState(player);
+    }
+
+    public int getUpvoteCount(Suggestion suggestion) {
+        int[] changes = countChanges.get(suggestion.getId());
+        return suggestion.getUpvoteCount() + (changes == null ? 0 : changes[0]);
+    }
+
+    public int getDownvoteCount(Suggestion suggestion) {
+        int[] changes = countChanges.get(suggestion.getId());
+        return suggestion.getDownvoteCount() + (changes == null ? 0 : changes[1]);
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Hands out the pending votes in click order and empties the queue.
+     */
+    public List<PendingVote> drain() {
+        List<PendingVote> votes = new ArrayList<>(pending.values());
+        pending.clear();
+        countChanges.clear();
+        return votes;
+    }
+
+    public void clear() {
+        pending.clear();
+        countChanges.clear();
+    }
+
+    void recordApplied(int count) {
+        votesApplied += count;
+    }
+
+    /**
+     * Vote clicks received since startup.
+     */
+    public long getClicksQueued() { return clicksQueued; }
+
+    /**
+     * Vote changes that were actually applied after coalescing.
+     */
+    public long getVotesApplied() { return votesApplied; }
+
+    public static final class PendingVote {
+        private final int suggestionId;
+        private final UUID playerUUID;
+        private final int player;
+        private int state;
+
+        private PendingVote(int suggestionId, UUID playerUUID, int player, int state) {
+            this.suggestionId = suggestionId;
+            this.playerUUID = playerUUID;
+            this.player = player;
+            this.state = state;
+        }
+
+        public int getSuggestionId() { return suggestionId; }
+        public UUID getPlayerUUID() { return playerUUID; }
+
+        /**
+         * The voter's {@link net.pallux.prosuggest.models.PlayerDictionary} ID.
+         */
+        public int getPlayer() { return player; }
+
+        /**
+         * The vote to end up with, as {@link Suggestion#VOTE_UP}, {@link Suggestion#VOTE_DOWN} or {@link Suggestion#VOTE_NONE}.
+         */
+        public int getState() { return state; }
+    }
+}
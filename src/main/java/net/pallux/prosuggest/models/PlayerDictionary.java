@@ -0,0 +1,189 @@
+package net.pallux.prosuggest.models;
+
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Maps every player UUID that ever voted to a small, dense int so vote sets can be stored as
+ * {@link VoteBitmap}s. IDs are handed out in order of first use and never reused.
+ * <p>
+ * UUIDs are kept as long pairs indexed by ID, with an open-addressing table of IDs for the
+ * reverse lookup. Lookups use optimistic reads, so the parallel loaders and the main thread
+ * only take the lock when a new player has to be added.
+ */
+public final class PlayerDictionary {
+
+    private static final PlayerDictionary INSTANCE = new PlayerDictionary();
+    private static final int MIN_CAPACITY = 64;
+
+    private final StampedLock lock;
+    // Most/least significant bits of player i at 2i and 2i + 1
+    private long[] uuids;
+    // Player ID + 1, or 0 for an empty slot
+    private int[] table;
+    private int size;
+
+    public PlayerDictionary() {
+        this.lock = new StampedLock();
+        this.uuids = new long[MIN_CAPACITY * 2];
+        this.table = new int[MIN_CAPACITY * 2];
+    }
+
+    public static PlayerDictionary getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the ID of the player, or -1 if the player has never been seen.
+     */
+    public int lookup(UUID uuid) {
+        return lookup(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public int lookup(long msb, long lsb) {
+        long stamp = lock.tryOptimisticRead();
+        int id = find(msb, lsb);
+        if (lock.validate(stamp)) return id;
+
+        stamp = lock.readLock();
+        try {
+            return find(msb, lsb);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the ID of the player, assigning the next free one if the player is new.
+     */
+    public int intern(UUID uuid) {
+        return intern(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public int intern(long msb, long lsb) {
+        int id = lookup(msb, lsb);
+        if (id >= 0) return id;
+
+        long stamp = lock.writeLock();
+        try {
+            id = find(msb, lsb);
+            if (id >= 0) return id;
+
+            id = size;
+            if (id * 2 == uuids.length) {
+                long[] grown = new long[uuids.length * 2];
+                System.arraycopy(uuids, 0, grown, 0, uuids.length);
+                uuids = grown;
+            }
+            uuids[id * 2] = msb;
+            uuids[id * 2 + 1] = lsb;
+            size++;
+
+            if (size * 2 > table.length) {
+                rehash(table.length * 2);
+            } else {
+                insert(table, id);
+            }
+            return id;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public UUID getUuid(int id) {
+        return new UUID(getMostSignificantBits(id), getLeastSignificantBits(id));
+    }
+
+    public long getMostSignificantBits(int id) {
+        return bits(id * 2);
+    }
+
+    public long getLeastSignificantBits(int id) {
+        return bits(id * 2 + 1);
+    }
+
+    private long bits(int index) {
+        long stamp = lock.tryOptimisticRead();
+        long[] current = uuids;
+        long value = index < current.length ? current[index] : 0;
+        if (lock.validate(stamp)) return value;
+
+        stamp = lock.readLock();
+        try {
+            return uuids[index];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int current = size;
+        if (lock.validate(stamp)) return current;
+
+        stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Approximate heap size of the dictionary in bytes.
+     */
+    public long getMemoryFootprint() {
+        long stamp = lock.readLock();
+        try {
+            return 32 + 16 + uuids.length * 8L + 16 + table.length * 4L;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // May run against a table that is being replaced; optimistic callers validate afterwards
+    private int find(long msb, long lsb) {
+        int[] currentTable = table;
+        long[] currentUuids = uuids;
+        int mask = currentTable.length - 1;
+        int index = hash(msb, lsb) & mask;
+
+        for (int probes = 0; probes < currentTable.length; probes++) {
+            int entry = currentTable[index];
+            if (entry == 0) return -1;
+
+            int id = entry - 1;
+            if (id * 2 + 1 < currentUuids.length
+                    && currentUuids[id * 2] == msb && currentUuids[id * 2 + 1] == lsb) {
+                return id;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(int[] target, int id) {
+        int mask = target.length - 1;
+        int index = hash(uuids[id * 2], uuids[id * 2 + 1]) & mask;
+        while (target[index] != 0) {
+            index = (index + 1) & mask;
+        }
+        target[index] = id + 1;
+    }
+
+    private void rehash(int capacity) {
+        int[] grown = new int[capacity];
+        for (int id = 0; id < size; id++) {
+            insert(grown, id);
+        }
+        table = grown;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb ^ Long.rotateLeft(lsb, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -10,32 +10,56 @@ import java.util.*;
 @SerializableAs("Suggestion")
 public class Suggestion implements ConfigurationSerializable {
 
-    private String id;
+    // Vote states, matching each vote's contribution to the score
+    public static final int VOTE_NONE = 0;
+    public static final int VOTE_UP = 1;
+    public static final int VOTE_DOWN = -1;
+
+    private int id;
+    private String displayId;
     private String title;
     private String description;
     private UUID authorUUID;
     private String authorName;
     private LocalDateTime createdAt;
-    private Set<UUID> upvotes;
-    private Set<UUID> downvotes;
+    private VoteBitmap upvotes;
+    private VoteBitmap downvotes;
     private String adminResponse;
 
     // Constructor for new suggestions
-    public Suggestion(String id, String title, String description, UUID authorUUID, String authorName) {
-        this.id = id;
+    public Suggestion(int id, String title, String description, UUID authorUUID, String authorName) {
+        setId(id);
         this.title = title;
         this.description = description;
         this.authorUUID = authorUUID;
         this.authorName = authorName;
         this.createdAt = LocalDateTime.now();
-        this.upvotes = new HashSet<>();
-        this.downvotes = new HashSet<>();
+        this.upvotes = new VoteBitmap();
+        this.downvotes = new VoteBitmap();
         this.adminResponse = null;
     }
 
+    // Copy constructor for detached snapshots
+    private Suggestion(Suggestion other) {
+        this.id = other.id;
+        this.displayId = other.displayId;
+        this.title = other.title;
+        this.description = other.description;
+        this.authorUUID = other.authorUUID;
+        this.authorName = other.authorName;
+        this.createdAt = other.createdAt;
+        this.upvotes = other.upvotes.copy();
+        this.downvotes = other.downvotes.copy();
+        this.adminResponse = other.adminResponse;
+    }
+
     // Constructor for deserialization
     public Suggestion(Map<String, Object> map) {
-        this.id = (String) map.get("id");
+        int parsedId = parseId(String.valueOf(map.get("id")));
+        if (parsedId < 0) {
+            throw new IllegalArgumentException("Invalid suggestion id " + map.get("id"));
+        }
+        setId(parsedId);
         this.title = (String) map.get("title");
         this.description = (String) map.get("description");
         this.authorUUID = UUID.fromString((String) map.get("authorUUID"));
@@ -44,16 +68,16 @@ public class Suggestion implements ConfigurationSerializable {
 
         // Handle upvotes
         List<String> upvoteList = (List<String>) map.getOrDefault("upvotes", new ArrayList<>());
-        this.upvotes = new HashSet<>();
+        this.upvotes = new VoteBitmap();
         for (String uuid : upvoteList) {
-            this.upvotes.add(UUID.fromString(uuid));
+            this.upvotes.add(players().intern(UUID.fromString(uuid)));
         }
 
         // Handle downvotes
         List<String> downvoteList = (List<String>) map.getOrDefault("downvotes", new ArrayList<>());
-        this.downvotes = new HashSet<>();
+        this.downvotes = new VoteBitmap();
         for (String uuid : downvoteList) {
-            this.downvotes.add(UUID.fromString(uuid));
+            this.downvotes.add(players().intern(UUID.fromString(uuid)));
         }
 
         this.adminResponse = (String) map.get("adminResponse");
@@ -62,7 +86,7 @@ public class Suggestion implements ConfigurationSerializable {
     @Override
     public Map<String, Object> serialize() {
         Map<String, Object> map = new HashMap<>();
-        map.put("id", id);
+        map.put("id", displayId);
         map.put("title", title);
         map.put("description", description);
         map.put("authorUUID", authorUUID.toString());
@@ -70,17 +94,13 @@ public class Suggestion implements ConfigurationSerializable {
         map.put("createdAt", createdAt.toString());
 
         // Serialize upvotes
-        List<String> upvoteList = new ArrayList<>();
-        for (UUID uuid : upvotes) {
-            upvoteList.add(uuid.toString());
-        }
+        List<String> upvoteList = new ArrayList<>(upvotes.cardinality());
+        upvotes.forEach(player -> upvoteList.add(players().getUuid(player).toString()));
         map.put("upvotes", upvoteList);
 
         // Serialize downvotes
-        List<String> downvoteList = new ArrayList<>();
-        for (UUID uuid : downvotes) {
-            downvoteList.add(uuid.toString());
-        }
+        List<String> downvoteList = new ArrayList<>(downvotes.cardinality());
+        downvotes.forEach(player -> downvoteList.add(players().getUuid(player).toString()));
         map.put("downvotes", downvoteList);
 
         if (adminResponse != null) {
@@ -91,44 +111,89 @@ public class Suggestion implements ConfigurationSerializable {
     }
 
     // Voting methods
-    public VoteResult vote(UUID playerUUID, VoteType voteType) {
-        boolean hadUpvote = upvotes.contains(playerUUID);
-        boolean hadDownvote = downvotes.contains(playerUUID);
-
-        if (voteType == VoteType.UPVOTE) {
-            if (hadUpvote) {
-                upvotes.remove(playerUUID);
-                return VoteResult.REMOVED;
-            } else {
-                upvotes.add(playerUUID);
-                downvotes.remove(playerUUID); // Remove downvote if exists
-                return VoteResult.UPVOTED;
-            }
-        } else {
-            if (hadDownvote) {
-                downvotes.remove(playerUUID);
-                return VoteResult.REMOVED;
-            } else {
-                downvotes.add(playerUUID);
-                upvotes.remove(playerUUID); // Remove upvote if exists
-                return VoteResult.DOWNVOTED;
+    public void setVote(UUID playerUUID, VoteType voteType) {
+        if (voteType == null) {
+            int player = players().lookup(playerUUID);
+            if (player >= 0) {
+                upvotes.remove(player);
+                downvotes.remove(player);
             }
+            return;
         }
+
+        int player = players().intern(playerUUID);
+        upvotes.remove(player);
+        downvotes.remove(player);
+        (voteType == VoteType.UPVOTE ? upvotes : downvotes).add(player);
     }
 
     public boolean hasVoted(UUID playerUUID) {
-        return upvotes.contains(playerUUID) || downvotes.contains(playerUUID);
+        return getVoteType(playerUUID) != null;
     }
 
     public VoteType getVoteType(UUID playerUUID) {
-        if (upvotes.contains(playerUUID)) return VoteType.UPVOTE;
-        if (downvotes.contains(playerUUID)) return VoteType.DOWNVOTE;
-        return null;
+        return getVoteType(players().lookup(playerUUID));
+    }
+
+    /**
+     * Vote of a player by {@link PlayerDictionary} ID.
+     */
+    public VoteType getVoteType(int player) {
+        switch (getVoteState(player)) {
+            case VOTE_UP:
+                return VoteType.UPVOTE;
+            case VOTE_DOWN:
+                return VoteType.DOWNVOTE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Vote of a player as {@link #VOTE_UP}, {@link #VOTE_DOWN} or {@link #VOTE_NONE}.
+     */
+    public int getVoteState(UUID playerUUID) {
+        return getVoteState(players().lookup(playerUUID));
+    }
+
+    public int getVoteState(int player) {
+        if (player < 0) return VOTE_NONE;
+        if (upvotes.contains(player)) return VOTE_UP;
+        if (downvotes.contains(player)) return VOTE_DOWN;
+        return VOTE_NONE;
     }
 
     // Utility methods
+    public Suggestion copy() {
+        return new Suggestion(this);
+    }
+
+    // Voter iteration without copies or UUID allocation
+    public void forEachUpvote(VoterVisitor visitor) {
+        upvotes.forEachVoter(players(), visitor);
+    }
+
+    public void forEachDownvote(VoterVisitor visitor) {
+        downvotes.forEachVoter(players(), visitor);
+    }
+
+    public VoteBitmap.PlayerIterator upvoterIterator() {
+        return upvotes.iterator();
+    }
+
+    public VoteBitmap.PlayerIterator downvoterIterator() {
+        return downvotes.iterator();
+    }
+
+    /**
+     * Approximate heap size of both vote sets in bytes.
+     */
+    public long getVoteMemoryFootprint() {
+        return upvotes.getMemoryFootprint() + downvotes.getMemoryFootprint();
+    }
+
     public int getScore() {
-        return upvotes.size() - downvotes.size();
+        return upvotes.cardinality() - downvotes.cardinality();
     }
 
     public String getFormattedDate() {
@@ -161,8 +226,16 @@ public class Suggestion implements ConfigurationSerializable {
     }
 
     // Getters and Setters
-    public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
+    public int getId() { return id; }
+    public void setId(int id) {
+        this.id = id;
+        this.displayId = formatId(id);
+    }
+
+    /**
+     * The ID as players see and type it, e.g. {@code s-007}.
+     */
+    public String getDisplayId() { return displayId; }
 
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
@@ -179,17 +252,62 @@ public class Suggestion implements ConfigurationSerializable {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
-    public Set<UUID> getUpvotes() { return new HashSet<>(upvotes); }
-    public void setUpvotes(Set<UUID> upvotes) { this.upvotes = new HashSet<>(upvotes); }
+    // Live, read-only views
+    public Set<UUID> getUpvotes() { return new VoterSetView(upvotes); }
+    public void setUpvotes(Set<UUID> upvotes) { this.upvotes = toVoteSet(upvotes); }
 
-    public Set<UUID> getDownvotes() { return new HashSet<>(downvotes); }
-    public void setDownvotes(Set<UUID> downvotes) { this.downvotes = new HashSet<>(downvotes); }
+    public Set<UUID> getDownvotes() { return new VoterSetView(downvotes); }
+    public void setDownvotes(Set<UUID> downvotes) { this.downvotes = toVoteSet(downvotes); }
 
     public String getAdminResponse() { return adminResponse; }
     public void setAdminResponse(String adminResponse) { this.adminResponse = adminResponse; }
 
-    public int getUpvoteCount() { return upvotes.size(); }
-    public int getDownvoteCount() { return downvotes.size(); }
+    public int getUpvoteCount() { return upvotes.cardinality(); }
+    public int getDownvoteCount() { return downvotes.cardinality(); }
+
+    public static String formatId(int id) {
+        String digits = Integer.toString(id);
+        switch (digits.length()) {
+            case 1:
+                return "s-00" + digits;
+            case 2:
+                return "s-0" + digits;
+            default:
+                return "s-" + digits;
+        }
+    }
+
+    /**
+     * Parses an ID in display form ({@code s-007}) or as a plain number.
+     *
+     * @return the ID, or -1 if the text is not a valid ID
+     */
+    public static int parseId(String text) {
+        if (text == null) return -1;
+
+        String digits = text.regionMatches(true, 0, "s-", 0, 2) ? text.substring(2) : text;
+        if (digits.isEmpty() || digits.length() > 9) return -1;
+
+        int id = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            char c = digits.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+
+    private static PlayerDictionary players() {
+        return PlayerDictionary.getInstance();
+    }
+
+    private static VoteBitmap toVoteSet(Set<UUID> uuids) {
+        VoteBitmap votes = new VoteBitmap();
+        for (UUID uuid : uuids) {
+            votes.add(players().intern(uuid));
+        }
+        return votes;
+    }
 
     // Enums
     public enum VoteType {
@@ -0,0 +1,125 @@
+package net.pallux.prosuggest.models;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Restricts a suggestion query. Filters are immutable; every {@code with} method returns a copy
+ * with one more condition, so conditions can be combined freely and all of them must hold.
+ */
+public final class SuggestionFilter {
+
+    public static final SuggestionFilter ALL = new SuggestionFilter(null, null, null,
+            Integer.MIN_VALUE, Integer.MAX_VALUE, null, null, null);
+
+    private final UUID author;
+    private final LocalDateTime createdAfter;
+    private final LocalDateTime createdBefore;
+    private final int minScore;
+    private final int maxScore;
+    private final Boolean answered;
+    private final String text;
+    private final UUID voter;
+
+    private SuggestionFilter(UUID author, LocalDateTime createdAfter, LocalDateTime createdBefore,
+                             int minScore, int maxScore, Boolean answered, String text, UUID voter) {
+        this.author = author;
+        this.createdAfter = createdAfter;
+        this.createdBefore = createdBefore;
+        this.minScore = minScore;
+        this.maxScore = maxScore;
+        this.answered = answered;
+        this.text = text;
+        this.voter = voter;
+    }
+
+    public static SuggestionFilter byAuthor(UUID author) {
+        return ALL.withAuthor(author);
+    }
+
+    public static SuggestionFilter byVoter(UUID voter) {
+        return ALL.withVoter(voter);
+    }
+
+    public SuggestionFilter withAuthor(UUID author) {
+        return new SuggestionFilter(author, createdAfter, createdBefore, minScore, maxScore, answered, text, voter);
+    }
+
+    /**
+     * Only suggestions created at or after the given time.
+     */
+    public SuggestionFilter withCreatedAfter(LocalDateTime createdAfter) {
+        return new SuggestionFilter(author, createdAfter, createdBefore, minScore, maxScore, answered, text, voter);
+    }
+
+    /**
+     * Only suggestions created before the given time.
+     */
+    public SuggestionFilter withCreatedBefore(LocalDateTime createdBefore) {
+        return new SuggestionFilter(author, createdAfter, createdBefore, minScore, maxScore, answered, text, voter);
+    }
+
+    /**
+     * Only suggestions with a score from {@code minScore} to {@code maxScore}, both inclusive.
+     */
+    public SuggestionFilter withScoreRange(int minScore, int maxScore) {
+        return new SuggestionFilter(author, createdAfter, createdBefore, minScore, maxScore, answered, text, voter);
+    }
+
+    /**
+     * Only suggestions with (true) or without (false) an admin response.
+     */
+    public SuggestionFilter withAnswered(boolean answered) {
+        return new SuggestionFilter(author, createdAfter, createdBefore, minScore, maxScore, answered, text, voter);
+    }
+
+    /**
+     * Only suggestions whose title or description matches the words, as in search.
+     */
+    public SuggestionFilter withText(String text) {
+        return new SuggestionFilter(author, createdAfter, createdBefore, minScore, maxScore, answered, text, voter);
+    }
+
+    /**
+     * Only suggestions the player has voted on, either way.
+     */
+    public SuggestionFilter withVoter(UUID voter) {
+        return new SuggestionFilter(author, createdAfter, createdBefore, minScore, maxScore, answered, text, voter);
+    }
+
+    public boolean isAll() {
+        return author == null && createdAfter == null && createdBefore == null && !hasScoreRange()
+                && answered == null && text == null && voter == null;
+    }
+
+    public boolean hasScoreRange() {
+        return minScore != Integer.MIN_VALUE || maxScore != Integer.MAX_VALUE;
+    }
+
+    /**
+     * Checks every condition except the text, which is matched against the search index.
+     */
+    public boolean matches(Suggestion suggestion) {
+        if (author != null && !author.equals(suggestion.getAuthorUUID())) return false;
+        if (voter != null && !suggestion.hasVoted(voter)) return false;
+        if (createdAfter != null && suggestion.getCreatedAt().isBefore(createdAfter)) return false;
+        if (createdBefore != null && !suggestion.getCreatedAt().isBefore(createdBefore)) return false;
+
+        int score = suggestion.getScore();
+        if (score < minScore || score > maxScore) return false;
+
+        return answered == null || answered == (suggestion.getAdminResponse() != null);
+    }
+
+    /**
+     * The author to list suggestions of, or null for everyone's.
+     */
+    public UUID getAuthor() { return author; }
+    public LocalDateTime getCreatedAfter() { return createdAfter; }
+    public LocalDateTime getCreatedBefore() { return createdBefore; }
+    public int getMinScore() { return minScore; }
+    public int getMaxScore() { return maxScore; }
+    public Boolean getAnswered() { return answered; }
+    public String getText() { return text; }
+    public UUID getVoter() { return voter; }
+}
@@ -0,0 +1,85 @@
+package net.pallux.prosuggest.models;
+
+import java.util.List;
+
+/**
+ * One page of a paged suggestion query, with what is needed to render navigation and to
+ * continue before its first or after its last entry.
+ * <p>
+ * Pages reached through cursors need not start at a multiple of the page size. The page number
+ * counts how many pages lie before this one, so Previous always leads down to page 1.
+ */
+public final class SuggestionPage {
+
+    private final List<Suggestion> suggestions;
+    private final int offset;
+    private final int pageSize;
+    private final int totalCount;
+    private final Cursor previousCursor;
+    private final Cursor nextCursor;
+
+    /**
+     * @param offset rank of the first entry among all matches
+     */
+    public SuggestionPage(List<Suggestion> suggestions, int offset, int pageSize, int totalCount,
+                          Cursor previousCursor, Cursor nextCursor) {
+        this.suggestions = suggestions;
+        this.offset = offset;
+        this.pageSize = pageSize;
+        this.totalCount = totalCount;
+        this.previousCursor = previousCursor;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Suggestion> getSuggestions() { return suggestions; }
+    public int getOffset() { return offset; }
+    public int getPageSize() { return pageSize; }
+    public int getTotalCount() { return totalCount; }
+
+    public int getPage() {
+        return pagesFor(offset) + 1;
+    }
+
+    public int getTotalPages() {
+        return getPage() + pagesFor(Math.max(0, totalCount - offset - suggestions.size()));
+    }
+
+    public boolean hasPrevious() {
+        return previousCursor != null;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Position right before this page, or null if it is the first one.
+     */
+    public Cursor getPreviousCursor() { return previousCursor; }
+
+    /**
+     * Position right after this page, or null if it is the last one.
+     */
+    public Cursor getNextCursor() { return nextCursor; }
+
+    private int pagesFor(int count) {
+        return (count + pageSize - 1) / pageSize;
+    }
+
+    /**
+     * A position in a sort order: the sort key and ID of the entry to continue after or before.
+     * Stays valid when that entry is deleted or moves, since the position, not the entry, is kept.
+     */
+    public static final class Cursor {
+        private final long sortKey;
+        private final int id;
+
+        public Cursor(long sortKey, int id) {
+            this.sortKey = sortKey;
+            this.id = id;
+        }
+
+        public long getSortKey() { return sortKey; }
+        public int getId() { return id; }
+    }
+}
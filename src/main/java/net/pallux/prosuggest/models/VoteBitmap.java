@@ -0,0 +1,425 @@
+package net.pallux.prosuggest.models;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of player IDs from the {@link PlayerDictionary}, laid out like a Roaring bitmap.
+ * <p>
+ * IDs are split by their high 16 bits into containers. A container holds a sorted {@code char[]}
+ * of the low bits while it has at most 4096 entries (2 bytes per voter) and switches to a
+ * 65536-bit bitmap (8 KB flat) beyond that. Dictionary IDs are dense, so a typical suggestion
+ * needs a single small array container and an empty one needs none.
+ */
+public final class VoteBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final char[] NO_KEYS = new char[0];
+    private static final Container[] NO_CONTAINERS = new Container[0];
+
+    private char[] keys;
+    private Container[] containers;
+    private int containerCount;
+    private int cardinality;
+
+    public VoteBitmap() {
+        this.keys = NO_KEYS;
+        this.containers = NO_CONTAINERS;
+    }
+
+    private VoteBitmap(VoteBitmap other) {
+        this.keys = Arrays.copyOf(other.keys, other.containerCount);
+        this.containers = new Container[other.containerCount];
+        for (int i = 0; i < other.containerCount; i++) {
+            this.containers[i] = other.containers[i].copy();
+        }
+        this.containerCount = other.containerCount;
+        this.cardinality = other.cardinality;
+    }
+
+    public boolean contains(int value) {
+        int index = Arrays.binarySearch(keys, 0, containerCount, high(value));
+        return index >= 0 && containers[index].contains(low(value));
+    }
+
+    public boolean add(int value) {
+        char high = high(value);
+        int index = Arrays.binarySearch(keys, 0, containerCount, high);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, high, new ArrayContainer());
+        }
+
+        Container container = containers[index];
+        int before = container.cardinality();
+        containers[index] = container.add(low(value));
+        if (containers[index].cardinality() == before) return false;
+
+        cardinality++;
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int index = Arrays.binarySearch(keys, 0, containerCount, high(value));
+        if (index < 0) return false;
+
+        Container container = containers[index];
+        int before = container.cardinality();
+        Container updated = container.remove(low(value));
+        if (updated.cardinality() == before) return false;
+
+        cardinality--;
+        if (updated.cardinality() == 0) {
+            removeContainer(index);
+        } else {
+            containers[index] = updated;
+        }
+        return true;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Visits every value in ascending order.
+     */
+    public void forEach(IntConsumer visitor) {
+        for (int i = 0; i < containerCount; i++) {
+            containers[i].forEach(keys[i] << 16, visitor);
+        }
+    }
+
+    /**
+     * Visits every value as a voter UUID resolved through the dictionary, without allocating.
+     */
+    public void forEachVoter(PlayerDictionary players, VoterVisitor visitor) {
+        for (int i = 0; i < containerCount; i++) {
+            containers[i].forEachVoter(keys[i] << 16, players, visitor);
+        }
+    }
+
+    /**
+     * Primitive iterator over the values in ascending order. The bitmap must not change while
+     * the iterator is in use.
+     */
+    public PlayerIterator iterator() {
+        return new PlayerIterator();
+    }
+
+    public VoteBitmap copy() {
+        return new VoteBitmap(this);
+    }
+
+    /**
+     * Approximate heap size of this bitmap in bytes, assuming compressed object pointers.
+     */
+    public long getMemoryFootprint() {
+        long footprint = 24;
+        if (keys.length > 0) {
+            footprint += 16 + keys.length * 2L + 16 + containers.length * 4L;
+        }
+        for (int i = 0; i < containerCount; i++) {
+            footprint += containers[i].footprint();
+        }
+        return footprint;
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        if (containerCount == keys.length) {
+            int capacity = Math.max(1, containerCount * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, containerCount - index);
+        System.arraycopy(containers, index, containers, index + 1, containerCount - index);
+        keys[index] = key;
+        containers[index] = container;
+        containerCount++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, containerCount - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, containerCount - index - 1);
+        containerCount--;
+        containers[containerCount] = null;
+    }
+
+    private static char high(int value) {
+        return (char) (value >>> 16);
+    }
+
+    private static char low(int value) {
+        return (char) value;
+    }
+
+    public final class PlayerIterator {
+        private int container;
+        private int position;
+
+        private PlayerIterator() {
+            advance();
+        }
+
+        public boolean hasNext() {
+            return container < containerCount;
+        }
+
+        public int next() {
+            if (!hasNext()) throw new NoSuchElementException();
+
+            int value = (keys[container] << 16) | containers[container].valueAt(position);
+            position++;
+            advance();
+            return value;
+        }
+
+        private void advance() {
+            while (container < containerCount) {
+                int next = containers[container].nextPosition(position);
+                if (next >= 0) {
+                    position = next;
+                    return;
+                }
+                container++;
+                position = 0;
+            }
+        }
+    }
+
+    private abstract static class Container {
+        abstract boolean contains(char value);
+
+        // Both return the container to keep, which may be a converted one
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract int cardinality();
+
+        abstract void forEach(int base, IntConsumer visitor);
+
+        abstract void forEachVoter(int base, PlayerDictionary players, VoterVisitor visitor);
+
+        // First occupied position at or after the given one, or -1; positions are container specific
+        abstract int nextPosition(int position);
+
+        abstract char valueAt(int position);
+
+        abstract Container copy();
+
+        abstract long footprint();
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int size;
+
+        private ArrayContainer() {
+            this.values = new char[4];
+        }
+
+        private ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) return this;
+
+            if (size == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+
+            index = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, size * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index < 0) return this;
+
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer visitor) {
+            for (int i = 0; i < size; i++) {
+                visitor.accept(base | values[i]);
+            }
+        }
+
+        @Override
+        void forEachVoter(int base, PlayerDictionary players, VoterVisitor visitor) {
+            for (int i = 0; i < size; i++) {
+                int player = base | values[i];
+                visitor.visit(players.getMostSignificantBits(player), players.getLeastSignificantBits(player));
+            }
+        }
+
+        @Override
+        int nextPosition(int position) {
+            return position < size ? position : -1;
+        }
+
+        @Override
+        char valueAt(int position) {
+            return values[position];
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(1, size)), size);
+        }
+
+        @Override
+        long footprint() {
+            return 16 + 16 + values.length * 2L;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < size; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        private BitmapContainer() {
+            this.words = new long[1024];
+        }
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container add(char value) {
+            long before = words[value >>> 6];
+            long after = before | (1L << value);
+            if (after != before) {
+                words[value >>> 6] = after;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long before = words[value >>> 6];
+            long after = before & ~(1L << value);
+            if (after == before) return this;
+
+            words[value >>> 6] = after;
+            cardinality--;
+            return cardinality <= ARRAY_MAX ? toArray() : this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer visitor) {
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    visitor.accept(base | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        void forEachVoter(int base, PlayerDictionary players, VoterVisitor visitor) {
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    int player = base | (i << 6) | Long.numberOfTrailingZeros(word);
+                    visitor.visit(players.getMostSignificantBits(player), players.getLeastSignificantBits(player));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        int nextPosition(int position) {
+            // Positions are the low bits themselves
+            int word = position >>> 6;
+            if (word >= words.length) return -1;
+
+            long bits = words[word] & (-1L << position);
+            while (bits == 0) {
+                if (++word == words.length) return -1;
+                bits = words[word];
+            }
+            return (word << 6) | Long.numberOfTrailingZeros(bits);
+        }
+
+        @Override
+        char valueAt(int position) {
+            return (char) position;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        long footprint() {
+            return 16 + 16 + words.length * 8L;
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            int size = 0;
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[size++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, size);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package net.pallux.prosuggest.models;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.UUID;
+
+/**
+ * Live, read-only {@code Set<UUID>} view of a {@link VoteBitmap}. Lookups and size never copy;
+ * only iteration creates UUIDs, one per element.
+ */
+final class VoterSetView extends AbstractSet<UUID> {
+
+    private final VoteBitmap votes;
+
+    VoterSetView(VoteBitmap votes) {
+        this.votes = votes;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof UUID)) return false;
+        int player = PlayerDictionary.getInstance().lookup((UUID) o);
+        return player >= 0 && votes.contains(player);
+    }
+
+    @Override
+    public int size() {
+        return votes.cardinality();
+    }
+
+    @Override
+    public Iterator<UUID> iterator() {
+        VoteBitmap.PlayerIterator players = votes.iterator();
+        return new Iterator<UUID>() {
+            @Override
+            public boolean hasNext() {
+                return players.hasNext();
+            }
+
+            @Override
+            public UUID next() {
+                return PlayerDictionary.getInstance().getUuid(players.next());
+            }
+        };
+    }
+}
@@ -0,0 +1,9 @@
+package net.pallux.prosuggest.models;
+
+/**
+ * Receives a voter's UUID as its two halves, so walking a vote set allocates no UUIDs.
+ */
+@FunctionalInterface
+public interface VoterVisitor {
+    void visit(long mostSignificantBits, long leastSignificantBits);
+}
@@ -0,0 +1,45 @@
+package net.pallux.prosuggest.ranking;
+
+/**
+ * Vote-based scores used by the sort orders.
+ */
+public final class Rankings {
+
+    // 95% confidence
+    private static final double Z = 1.96;
+
+    private Rankings() {
+    }
+
+    /**
+     * Lower bound of the Wilson score interval for the share of upvotes. Ranks a suggestion by
+     * how confident we can be that most voters like it, so 40 up and 2 down beats 3 up and 0 down.
+     */
+    public static double wilsonLowerBound(int upvotes, int downvotes) {
+        int total = upvotes + downvotes;
+        if (total == 0) return 0;
+
+        double p = (double) upvotes / total;
+        double z2 = Z * Z;
+        return (p + z2 / (2 * total) - Z * Math.sqrt((p * (1 - p) + z2 / (4 * total)) / total)) / (1 + z2 / total);
+    }
+
+    /**
+     * High for suggestions with many votes split evenly between up and down, zero if all votes agree.
+     */
+    public static double controversy(int upvotes, int downvotes) {
+        if (upvotes == 0 || downvotes == 0) return 0;
+
+        double balance = upvotes > downvotes ? (double) downvotes / upvotes : (double) upvotes / downvotes;
+        return Math.pow(upvotes + downvotes, balance);
+    }
+
+    /**
+     * Maps a score to a sort key, so that higher scores come first in ascending key order.
+     */
+    public static long descending(double score) {
+        long bits = Double.doubleToLongBits(-score);
+        // Flip the magnitude bits of negative numbers so the bit patterns sort like the values
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,84 @@
+package net.pallux.prosuggest.ranking;
+
+import net.pallux.prosuggest.models.Suggestion;
+import net.pallux.prosuggest.util.IntObjectMap;
+
+import java.time.ZoneId;
+
+/**
+ * Time-decayed vote velocity per suggestion: every vote adds its effect on the score, and that
+ * contribution halves every half-life. A new suggestion starts with the weight of one vote at
+ * its creation time, plus its current score if it is being loaded, since vote times are not stored.
+ * <p>
+ * Weights are kept scaled to a base time instead of being decayed one by one. Everything decays
+ * at the same rate, so the order never changes while time passes; only votes move suggestions.
+ * {@link #rebase(long)} moves the base time forward before the scaled numbers grow too large.
+ * Not thread-safe.
+ */
+public class TrendTracker {
+
+    private final long halfLifeMillis;
+    private long baseMillis;
+    // Weight of each suggestion, as of the base time
+    private final IntObjectMap<double[]> weights;
+
+    public TrendTracker(long halfLifeMillis, long nowMillis) {
+        this.halfLifeMillis = Math.max(1, halfLifeMillis);
+        this.baseMillis = nowMillis;
+        this.weights = new IntObjectMap<>();
+    }
+
+    public void track(Suggestion suggestion, boolean withScore) {
+        long createdMillis = suggestion.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        double initial = 1 + (withScore ? suggestion.getScore() : 0);
+        weights.put(suggestion.getId(), new double[]{initial * growth(createdMillis)});
+    }
+
+    /**
+     * Records a change of the score, e.g. +1 for an upvote or -2 for an upvote turned into a downvote.
+     */
+    public void recordVote(int id, int scoreChange, long nowMillis) {
+        double[] weight = weights.get(id);
+        if (weight != null) {
+            weight[0] += scoreChange * growth(nowMillis);
+        }
+    }
+
+    public void remove(int id) {
+        weights.remove(id);
+    }
+
+    public void clear() {
+        weights.clear();
+    }
+
+    /**
+     * Sort weight of the suggestion; only comparable with weights from the same base time.
+     */
+    public double getWeight(int id) {
+        double[] weight = weights.get(id);
+        return weight == null ? 0 : weight[0];
+    }
+
+    /**
+     * Whether enough time passed since the base time that the weights should be rebased.
+     */
+    public boolean needsRebase(long nowMillis) {
+        return nowMillis - baseMillis >= halfLifeMillis;
+    }
+
+    /**
+     * Rescales every weight to the given base time. All weights change, so sort keys derived
+     * from them have to be refreshed afterwards.
+     */
+    public void rebase(long nowMillis) {
+        double factor = 1 / growth(nowMillis);
+        weights.forEachValue(weight -> weight[0] *= factor);
+        baseMillis = nowMillis;
+    }
+
+    // How much a vote at the given time outweighs one at the base time
+    private double growth(long timeMillis) {
+        return Math.pow(2, (double) (timeMillis - baseMillis) / halfLifeMillis);
+    }
+}
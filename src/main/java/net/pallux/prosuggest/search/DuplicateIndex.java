@@ -0,0 +1,189 @@
+package net.pallux.prosuggest.search;
+
+import net.pallux.prosuggest.models.Suggestion;
+import net.pallux.prosuggest.util.IntObjectMap;
+import net.pallux.prosuggest.util.IntSortedSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds suggestions whose text is nearly the same as a new one, using MinHash with
+ * locality-sensitive hashing.
+ * <p>
+ * Title and description are cut into overlapping 4-character shingles and summarised by a
+ * 64-value MinHash signature; two signatures agree in about as many positions as the texts
+ * share shingles (Jaccard similarity). Signatures are split into 16 bands of 4 values and every
+ * band is hashed into a bucket, so texts that are at least around 50% similar are very likely to
+ * share a bucket. A lookup only compares against the few suggestions in its buckets instead of
+ * scanning all of them. Not thread-safe.
+ */
+public class DuplicateIndex {
+
+    private static final int SHINGLE_LENGTH = 4;
+    private static final int BANDS = 16;
+    private static final int ROWS = 4;
+    private static final int SIGNATURE_LENGTH = BANDS * ROWS;
+    private static final long[] SEEDS = new long[SIGNATURE_LENGTH];
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            SEEDS[i] = mix(seed);
+        }
+    }
+
+    private final IntObjectMap<int[]> signatures;
+    private final Map<Long, IntSortedSet> buckets;
+
+    public DuplicateIndex() {
+        this.signatures = new IntObjectMap<>();
+        this.buckets = new HashMap<>();
+    }
+
+    /**
+     * Indexes the suggestion, replacing whatever was indexed for its ID before.
+     */
+    public void index(Suggestion suggestion) {
+        remove(suggestion.getId());
+
+        int[] signature = signature(suggestion.getTitle(), suggestion.getDescription());
+        signatures.put(suggestion.getId(), signature);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bucketKey(signature, band), key -> new IntSortedSet()).add(suggestion.getId());
+        }
+    }
+
+    public void remove(int id) {
+        int[] signature = signatures.remove(id);
+        if (signature == null) return;
+
+        for (int band = 0; band < BANDS; band++) {
+            long key = bucketKey(signature, band);
+            IntSortedSet bucket = buckets.get(key);
+            if (bucket != null && bucket.remove(id) && bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    public void clear() {
+        signatures.clear();
+        buckets.clear();
+    }
+
+    /**
+     * Suggestions whose text is estimated to be at least {@code threshold} similar, most similar first.
+     */
+    public List<Match> findSimilar(String title, String description, double threshold, int limit) {
+        int[] signature = signature(title, description);
+
+        List<Match> matches = new ArrayList<>();
+        IntSortedSet seen = new IntSortedSet();
+        for (int band = 0; band < BANDS; band++) {
+            IntSortedSet bucket = buckets.get(bucketKey(signature, band));
+            if (bucket == null) continue;
+
+            for (int i = 0; i < bucket.size(); i++) {
+                int id = bucket.get(i);
+                if (!seen.add(id)) continue;
+
+                double similarity = similarity(signature, signatures.get(id));
+                if (similarity >= threshold) {
+                    matches.add(new Match(id, similarity));
+                }
+            }
+        }
+
+        matches.sort((a, b) -> Double.compare(b.getSimilarity(), a.getSimilarity()));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    private static int[] signature(String title, String description) {
+        String text = normalize(title + " " + (description == null ? "" : description));
+
+        int[] signature = new int[SIGNATURE_LENGTH];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+
+        int shingles = Math.max(1, text.length() - SHINGLE_LENGTH + 1);
+        for (int start = 0; start < shingles; start++) {
+            long shingle = 0;
+            for (int i = start; i < Math.min(text.length(), start + SHINGLE_LENGTH); i++) {
+                shingle = (shingle << 16) | text.charAt(i);
+            }
+            long hash = mix(shingle);
+
+            // One cheap hash function per signature position, derived from the shingle hash
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                int value = (int) mix(hash ^ SEEDS[i]);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    // Lower case, letters and digits only, single spaces between words
+    private static String normalize(String text) {
+        StringBuilder builder = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                builder.append(c);
+                space = false;
+            } else if (!space) {
+                builder.append(' ');
+                space = true;
+            }
+        }
+        return builder.toString().trim();
+    }
+
+    private static long bucketKey(int[] signature, int band) {
+        long hash = band;
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i++) {
+            hash = hash * 0x100000001B3L + signature[i];
+        }
+        return mix(hash);
+    }
+
+    private static double similarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            if (a[i] == b[i]) same++;
+        }
+        return (double) same / SIGNATURE_LENGTH;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    public static final class Match {
+        private final int id;
+        private final double similarity;
+
+        private Match(int id, double similarity) {
+            this.id = id;
+            this.similarity = similarity;
+        }
+
+        public int getId() { return id; }
+
+        /**
+         * Estimated share of shingles the texts have in common, from 0 to 1.
+         */
+        public double getSimilarity() { return similarity; }
+    }
+}
@@ -0,0 +1,400 @@
+package net.pallux.prosuggest.search;
+
+import net.pallux.prosuggest.models.Suggestion;
+import net.pallux.prosuggest.util.IntObjectMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * In-memory inverted index over suggestion titles and descriptions.
+ * <p>
+ * Every term maps to a posting list of suggestion IDs with a weight (title hits count three
+ * times as much as description hits). Terms are kept sorted, so a query term also matches every
+ * indexed term it is a prefix of. Suggestions are added, re-indexed and removed one at a time,
+ * so the index never has to be rebuilt. Not thread-safe.
+ */
+public class SearchIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 32;
+    // Up to this many expansions a query term is checked per candidate, beyond it the lists are merged
+    private static final int MAX_PROBED_EXPANSIONS = 8;
+    private static final double PREFIX_FACTOR = 0.5;
+
+    private final NavigableMap<String, Postings> terms;
+    // Distinct terms of each indexed suggestion, needed to remove it again
+    private final IntObjectMap<String[]> documentTerms;
+
+    public SearchIndex() {
+        this.terms = new TreeMap<>();
+        this.documentTerms = new IntObjectMap<>();
+    }
+
+    /**
+     * Indexes the suggestion, replacing whatever was indexed for its ID before.
+     */
+    public void index(Suggestion suggestion) {
+        remove(suggestion.getId());
+
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String term : tokenize(suggestion.getTitle(), MIN_TERM_LENGTH)) {
+            weights.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(suggestion.getDescription(), MIN_TERM_LENGTH)) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        if (weights.isEmpty()) return;
+
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            terms.computeIfAbsent(entry.getKey(), key -> new Postings()).add(suggestion.getId(), entry.getValue());
+        }
+        documentTerms.put(suggestion.getId(), weights.keySet().toArray(new String[0]));
+    }
+
+    public void remove(int id) {
+        String[] indexed = documentTerms.remove(id);
+        if (indexed == null) return;
+
+        for (String term : indexed) {
+            Postings postings = terms.get(term);
+            if (postings != null && postings.remove(id) && postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+    }
+
+    public void clear() {
+        terms.clear();
+        documentTerms.clear();
+    }
+
+    public int getDocumentCount() {
+        return documentTerms.size();
+    }
+
+    public int getTermCount() {
+        return terms.size();
+    }
+
+    /**
+     * Finds suggestions matching every query term, exactly or by prefix, best match first.
+     * A query term expands to every indexed term it is a prefix of, so the matches are complete
+     * however short the term is. Scores add up the term weights scaled by how rare each term is;
+     * ties go to newer suggestions.
+     *
+     * @return IDs of at most {@code limit} matches
+     */
+    public int[] search(String query, int limit) {
+        List<String> queryTerms = tokenize(query, 1);
+        if (queryTerms.isEmpty() || limit <= 0) return new int[0];
+
+        // Resolve every query term to the posting lists it matches
+        List<List<Postings>> matches = new ArrayList<>(queryTerms.size());
+        List<double[]> factors = new ArrayList<>(queryTerms.size());
+        int rarest = 0;
+        long rarestCount = Long.MAX_VALUE;
+        for (String queryTerm : new LinkedHashSet<>(queryTerms)) {
+            List<Postings> termPostings = new ArrayList<>();
+            double[] termFactors = new double[4];
+            long count = 0;
+            for (Map.Entry<String, Postings> entry : terms.tailMap(queryTerm, true).entrySet()) {
+                if (!entry.getKey().startsWith(queryTerm)) break;
+
+                Postings postings = entry.getValue();
+                if (termPostings.size() == termFactors.length) {
+                    termFactors = Arrays.copyOf(termFactors, termFactors.length * 2);
+                }
+                termFactors[termPostings.size()] = (entry.getKey().length() == queryTerm.length() ? 1.0 : PREFIX_FACTOR)
+                        * idf(postings.size);
+                termPostings.add(postings);
+                count += postings.size;
+            }
+            if (termPostings.isEmpty()) return new int[0];
+            termFactors = Arrays.copyOf(termFactors, termPostings.size());
+
+            if (count < rarestCount) {
+                rarestCount = count;
+                rarest = matches.size();
+            }
+            matches.add(termPostings);
+            factors.add(termFactors);
+        }
+
+        // Candidates come from the rarest term, the others can only narrow them down
+        Candidates candidates = collect(matches.get(rarest), factors.get(rarest));
+        for (int term = 0; term < matches.size() && candidates.size > 0; term++) {
+            if (term == rarest) continue;
+
+            if (matches.get(term).size() <= MAX_PROBED_EXPANSIONS) {
+                candidates.retain(matches.get(term), factors.get(term));
+            } else {
+                // Probing dozens of lists per candidate costs more than merging them once
+                candidates.retain(collect(matches.get(term), factors.get(term)));
+            }
+        }
+
+        return candidates.top(limit);
+    }
+
+    /**
+     * An upper bound for how many suggestions the query matches, from its rarest term, without
+     * running it.
+     */
+    public int estimateMatches(String query) {
+        List<String> queryTerms = tokenize(query, 1);
+        if (queryTerms.isEmpty()) return 0;
+
+        long rarestCount = Long.MAX_VALUE;
+        for (String queryTerm : new LinkedHashSet<>(queryTerms)) {
+            long count = 0;
+            for (Map.Entry<String, Postings> entry : terms.tailMap(queryTerm, true).entrySet()) {
+                if (!entry.getKey().startsWith(queryTerm)) break;
+                count += entry.getValue().size;
+            }
+            rarestCount = Math.min(rarestCount, count);
+        }
+        return (int) Math.min(rarestCount, documentTerms.size());
+    }
+
+    /**
+     * Tests single suggestions against the query, matching exactly the suggestions {@link #search}
+     * finds for it. Cheaper than a search when only a few candidates need checking.
+     */
+    public IntPredicate matcher(String query) {
+        String[] queryTerms = new LinkedHashSet<>(tokenize(query, 1)).toArray(new String[0]);
+        if (queryTerms.length == 0) return id -> false;
+
+        return id -> {
+            String[] indexed = documentTerms.get(id);
+            if (indexed == null) return false;
+
+            for (String queryTerm : queryTerms) {
+                boolean found = false;
+                for (String term : indexed) {
+                    if (term.startsWith(queryTerm)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) return false;
+            }
+            return true;
+        };
+    }
+
+    private Candidates collect(List<Postings> postingsList, double[] factors) {
+        int total = 0;
+        for (Postings postings : postingsList) {
+            total += postings.size;
+        }
+
+        // Gather (id, score) pairs, sort them by ID and keep the best score per ID
+        long[] packed = new long[total];
+        double[] scores = new double[total];
+        int size = 0;
+        for (int i = 0; i < postingsList.size(); i++) {
+            Postings postings = postingsList.get(i);
+            for (int j = 0; j < postings.size; j++) {
+                packed[size] = ((long) postings.ids[j] << 32) | size;
+                scores[size] = postings.weights[j] * factors[i];
+                size++;
+            }
+        }
+        Arrays.sort(packed, 0, size);
+
+        Candidates candidates = new Candidates(size);
+        for (int i = 0; i < size; i++) {
+            int id = (int) (packed[i] >>> 32);
+            double score = scores[(int) packed[i]];
+            int last = candidates.size - 1;
+            if (last >= 0 && candidates.ids[last] == id) {
+                candidates.scores[last] = Math.max(candidates.scores[last], score);
+            } else {
+                candidates.ids[candidates.size] = id;
+                candidates.scores[candidates.size] = score;
+                candidates.size++;
+            }
+        }
+        return candidates;
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1 + (double) documentTerms.size() / documentFrequency);
+    }
+
+    /**
+     * Splits text into lower-case terms of letters and digits.
+     */
+    static List<String> tokenize(String text, int minLength) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= minLength) {
+                    tokens.add(lower.substring(start, Math.min(i, start + MAX_TERM_LENGTH)));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Suggestion IDs in ascending order with parallel weights
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int[] weights = new int[4];
+        private int size;
+
+        private void add(int id, int weight) {
+            // IDs are mostly indexed in increasing order, so appending is the common case
+            int index = size > 0 && ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                weights[index] = weight;
+                return;
+            }
+
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(weights, index, weights, index + 1, size - index);
+            ids[index] = id;
+            weights[index] = weight;
+            size++;
+        }
+
+        private boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) return false;
+
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        private int weightOf(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            return index >= 0 ? weights[index] : 0;
+        }
+    }
+
+    // Matching IDs in ascending order with their running scores
+    private static final class Candidates {
+        private final int[] ids;
+        private final double[] scores;
+        private int size;
+
+        private Candidates(int capacity) {
+            this.ids = new int[capacity];
+            this.scores = new double[capacity];
+        }
+
+        // Drops candidates no posting list matches and adds the best match to the rest
+        private void retain(List<Postings> postingsList, double[] factors) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                double best = 0;
+                for (int j = 0; j < postingsList.size(); j++) {
+                    best = Math.max(best, postingsList.get(j).weightOf(ids[i]) * factors[j]);
+                }
+                if (best > 0) {
+                    ids[kept] = ids[i];
+                    scores[kept] = scores[i] + best;
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        // Drops candidates the other set lacks and adds its score to the rest; both are sorted by ID
+        private void retain(Candidates other) {
+            int kept = 0;
+            int j = 0;
+            for (int i = 0; i < size; i++) {
+                while (j < other.size && other.ids[j] < ids[i]) j++;
+                if (j == other.size) break;
+                if (other.ids[j] == ids[i]) {
+                    ids[kept] = ids[i];
+                    scores[kept] = scores[i] + other.scores[j];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        // Best matches first, picked with a bounded min-heap of candidate positions
+        private int[] top(int limit) {
+            int[] heap = new int[Math.min(limit, size)];
+            int heapSize = 0;
+            for (int i = 0; i < size; i++) {
+                if (heapSize < heap.length) {
+                    heap[heapSize] = i;
+                    siftUp(heap, heapSize++);
+                } else if (heap.length > 0 && ranksAbove(i, heap[0])) {
+                    heap[0] = i;
+                    siftDown(heap, heapSize);
+                }
+            }
+
+            int[] result = new int[heapSize];
+            while (heapSize > 0) {
+                result[--heapSize] = ids[heap[0]];
+                heap[0] = heap[heapSize];
+                siftDown(heap, heapSize);
+            }
+            return result;
+        }
+
+        private boolean ranksAbove(int a, int b) {
+            int comparison = Double.compare(scores[a], scores[b]);
+            return comparison != 0 ? comparison > 0 : ids[a] > ids[b];
+        }
+
+        private void siftUp(int[] heap, int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!ranksAbove(heap[parent], heap[index])) break;
+                swap(heap, parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int[] heap, int heapSize) {
+            int index = 0;
+            while (true) {
+                int child = index * 2 + 1;
+                if (child >= heapSize) break;
+                if (child + 1 < heapSize && ranksAbove(heap[child], heap[child + 1])) child++;
+                if (!ranksAbove(heap[index], heap[child])) break;
+                swap(heap, index, child);
+                index = child;
+            }
+        }
+
+        private static void swap(int[] heap, int a, int b) {
+            int value = heap[a];
+            heap[a] = heap[b];
+            heap[b] = value;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package net.pallux.prosuggest.storage;
+
+import net.pallux.prosuggest.models.Suggestion;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.logging.Logger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact, versioned binary encoding of a full suggestion snapshot.
+ * <p>
+ * Layout: a fixed header {@code [magic][version][flags][count][bodyLength]} followed by the body,
+ * which is optionally deflate-compressed. The body is a sequence of length-prefixed records.
+ * UUIDs are stored as two longs, timestamps as epoch millis (UTC) and strings as
+ * length-prefixed UTF-8. Records are decoded in parallel, and one that fails to decode is skipped
+ * using its length prefix.
+ */
+public final class BinarySnapshotCodec {
+
+    private static final int MAGIC = 0x50535547; // "PSUG"
+    private static final short VERSION = 1;
+    private static final byte FLAG_DEFLATE = 1;
+    private static final int HEADER_LENGTH = 4 + 2 + 1 + 4 + 4;
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private BinarySnapshotCodec() {
+    }
+
+    public static Map<Integer, Suggestion> read(Path path, Logger logger) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IOException(path.getFileName() + " is truncated");
+                }
+            }
+            header.flip();
+
+            if (header.getInt() != MAGIC) {
+                throw new IOException(path.getFileName() + " is not a suggestion snapshot");
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + path.getFileName());
+            }
+            byte flags = header.get();
+            int count = header.getInt();
+            int bodyLength = header.getInt();
+
+            ByteBuffer body;
+            if ((flags & FLAG_DEFLATE) != 0) {
+                body = inflate(channel, bodyLength);
+            } else {
+                body = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH, bodyLength);
+            }
+
+            // Find the record boundaries first so the records themselves can be decoded in parallel
+            List<ByteBuffer> records = new ArrayList<>(Math.max(0, count));
+            while (records.size() < count && body.remaining() >= 4) {
+                int length = body.getInt();
+                if (length < 0 || length > body.remaining()) {
+                    logger.warning("Snapshot " + path.getFileName() + " is truncated after " + records.size() + " records");
+                    break;
+                }
+                records.add(body.slice(body.position(), length));
+                body.position(body.position() + length);
+            }
+
+            List<Suggestion> decoded = ParallelLoader.map(records, record -> {
+                try {
+                    return readRecord(record);
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    return null;
+                }
+            });
+
+            Map<Integer, Suggestion> loaded = new LinkedHashMap<>(Math.max(16, count * 4 / 3 + 1));
+            for (int i = 0; i < decoded.size(); i++) {
+                Suggestion suggestion = decoded.get(i);
+                if (suggestion == null) {
+                    logger.warning("Skipping corrupt record " + i + " in " + path.getFileName());
+                    continue;
+                }
+                loaded.put(suggestion.getId(), suggestion);
+            }
+            return loaded;
+        }
+    }
+
+    public static void write(Path path, Collection<Suggestion> suggestions, boolean compress) throws IOException {
+        ByteBuffer body = ByteBuffer.allocate(Math.max(1024, suggestions.size() * 256));
+        for (Suggestion suggestion : suggestions) {
+            body = writeRecord(body, suggestion);
+        }
+        body.flip();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.put(compress ? FLAG_DEFLATE : 0);
+        header.putInt(suggestions.size());
+        header.putInt(body.remaining());
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            if (compress) {
+                deflate(channel, body);
+            } else {
+                writeFully(channel, body);
+            }
+            channel.force(false);
+        }
+    }
+
+    private static Suggestion readRecord(ByteBuffer buffer) {
+        int id = buffer.getInt();
+        if (id < 0) {
+            throw new IllegalArgumentException("Invalid suggestion id");
+        }
+        String title = readString(buffer);
+        String description = readString(buffer);
+        UUID author = new UUID(buffer.getLong(), buffer.getLong());
+        String authorName = readString(buffer);
+        LocalDateTime createdAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong()), ZoneOffset.UTC);
+        String response = buffer.get() != 0 ? readString(buffer) : null;
+
+        Suggestion suggestion = new Suggestion(id, title, description, author, authorName);
+        suggestion.setCreatedAt(createdAt);
+        suggestion.setAdminResponse(response);
+
+        int upvotes = buffer.getInt();
+        for (int i = 0; i < upvotes; i++) {
+            suggestion.setVote(new UUID(buffer.getLong(), buffer.getLong()), Suggestion.VoteType.UPVOTE);
+        }
+        int downvotes = buffer.getInt();
+        for (int i = 0; i < downvotes; i++) {
+            suggestion.setVote(new UUID(buffer.getLong(), buffer.getLong()), Suggestion.VoteType.DOWNVOTE);
+        }
+
+        return suggestion;
+    }
+
+    private static ByteBuffer writeRecord(ByteBuffer buffer, Suggestion suggestion) {
+        byte[] title = suggestion.getTitle().getBytes(StandardCharsets.UTF_8);
+        byte[] description = suggestion.getDescription().getBytes(StandardCharsets.UTF_8);
+        byte[] authorName = suggestion.getAuthorName().getBytes(StandardCharsets.UTF_8);
+        byte[] response = suggestion.getAdminResponse() == null
+                ? null : suggestion.getAdminResponse().getBytes(StandardCharsets.UTF_8);
+        int upvotes = suggestion.getUpvoteCount();
+        int downvotes = suggestion.getDownvoteCount();
+
+        int length = 4 + 4 + title.length + 4 + description.length + 16 + 4 + authorName.length
+                + 8 + 1 + (response == null ? 0 : 4 + response.length)
+                + 4 + upvotes * 16 + 4 + downvotes * 16;
+        ByteBuffer target = ensureCapacity(buffer, 4 + length);
+
+        target.putInt(length);
+        target.putInt(suggestion.getId());
+        putBytes(target, title);
+        putBytes(target, description);
+        target.putLong(suggestion.getAuthorUUID().getMostSignificantBits());
+        target.putLong(suggestion.getAuthorUUID().getLeastSignificantBits());
+        putBytes(target, authorName);
+        target.putLong(suggestion.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+        target.put((byte) (response == null ? 0 : 1));
+        if (response != null) {
+            putBytes(target, response);
+        }
+
+        target.putInt(upvotes);
+        suggestion.forEachUpvote((msb, lsb) -> target.putLong(msb).putLong(lsb));
+        target.putInt(downvotes);
+        suggestion.forEachDownvote((msb, lsb) -> target.putLong(msb).putLong(lsb));
+
+        return target;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length " + length);
+        }
+
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int needed) {
+        if (buffer.remaining() >= needed) return buffer;
+
+        int capacity = buffer.capacity();
+        while (capacity - buffer.position() < needed) {
+            capacity *= 2;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void deflate(FileChannel channel, ByteBuffer body) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+
+            ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+            while (!deflater.finished()) {
+                deflater.deflate(chunk);
+                chunk.flip();
+                writeFully(channel, chunk);
+                chunk.clear();
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static ByteBuffer inflate(FileChannel channel, int bodyLength) throws IOException {
+        ByteBuffer compressed = ByteBuffer.allocate((int) (channel.size() - HEADER_LENGTH));
+        while (compressed.hasRemaining()) {
+            if (channel.read(compressed) < 0) break;
+        }
+        compressed.flip();
+
+        ByteBuffer body = ByteBuffer.allocate(bodyLength);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            while (body.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(body) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Compressed snapshot is truncated");
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Compressed snapshot is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+
+        body.flip();
+        return body;
+    }
+}
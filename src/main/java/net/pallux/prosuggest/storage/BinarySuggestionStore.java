@@ -0,0 +1,38 @@
+package net.pallux.prosuggest.storage;
+
+import net.pallux.prosuggest.models.Suggestion;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Journaled store with a compact {@link BinarySnapshotCodec binary} snapshot.
+ */
+public class BinarySuggestionStore extends JournaledSuggestionStore {
+
+    private final boolean compress;
+
+    public BinarySuggestionStore(File file, Logger logger, FlushMetrics metrics, int compactThreshold,
+                                 boolean syncWrites, boolean compress) {
+        super(file, logger, metrics, compactThreshold, syncWrites);
+        this.compress = compress;
+    }
+
+    @Override
+    protected Map<Integer, Suggestion> readSnapshot() throws IOException {
+        return BinarySnapshotCodec.read(file.toPath(), logger);
+    }
+
+    @Override
+    protected void writeSnapshot(File target, Collection<Suggestion> suggestions) throws IOException {
+        BinarySnapshotCodec.write(target.toPath(), suggestions, compress);
+    }
+
+    @Override
+    public String getDescription() {
+        return "binary (" + (compress ? "deflate, " : "") + getJournalRecordCount() + " journal records)";
+    }
+}
@@ -0,0 +1,67 @@
+package net.pallux.prosuggest.storage;
+
+import java.util.concurrent.TimeUnit;
+
+public class FlushMetrics {
+
+    private long flushCount;
+    private long entriesFlushed;
+    private int lastFlushSize;
+    private long lastFlushNanos;
+    private long maxFlushNanos;
+    private long totalFlushNanos;
+    private long compactionCount;
+    private long lastCompactionNanos;
+
+    public synchronized void record(int entries, long nanos) {
+        flushCount++;
+        entriesFlushed += entries;
+        lastFlushSize = entries;
+        lastFlushNanos = nanos;
+        totalFlushNanos += nanos;
+        if (nanos > maxFlushNanos) {
+            maxFlushNanos = nanos;
+        }
+    }
+
+    public synchronized void recordCompaction(long nanos) {
+        compactionCount++;
+        lastCompactionNanos = nanos;
+    }
+
+    public synchronized long getFlushCount() {
+        return flushCount;
+    }
+
+    public synchronized long getEntriesFlushed() {
+        return entriesFlushed;
+    }
+
+    public synchronized int getLastFlushSize() {
+        return lastFlushSize;
+    }
+
+    public synchronized double getLastFlushMillis() {
+        return toMillis(lastFlushNanos);
+    }
+
+    public synchronized double getMaxFlushMillis() {
+        return toMillis(maxFlushNanos);
+    }
+
+    public synchronized double getAverageFlushMillis() {
+        return flushCount == 0 ? 0 : toMillis(totalFlushNanos / flushCount);
+    }
+
+    public synchronized long getCompactionCount() {
+        return compactionCount;
+    }
+
+    public synchronized double getLastCompactionMillis() {
+        return toMillis(lastCompactionNanos);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,102 @@
+package net.pallux.prosuggest.storage;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The one thread that does all of the plugin's disk work: loading and saving suggestions, the
+ * player dictionary and the configuration files.
+ * <p>
+ * Tasks run one at a time in the order they were submitted, so a save always reaches the disk
+ * before a later load or close reads it, and callers get a {@link CompletableFuture} instead of
+ * waiting. The thread can be a virtual thread, which does not tie up a platform thread while it
+ * is idle or waiting on the disk.
+ */
+public class IoExecutor {
+
+    private final ExecutorService executor;
+    private final AtomicInteger queued;
+
+    public IoExecutor(boolean virtualThread) {
+        ThreadFactory factory = virtualThread
+                ? Thread.ofVirtual().name("ProSuggest-IO").factory()
+                : runnable -> {
+                    Thread thread = new Thread(runnable, "ProSuggest-IO");
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        this.executor = Executors.newSingleThreadExecutor(factory);
+        this.queued = new AtomicInteger();
+    }
+
+    /**
+     * Runs the task on the I/O thread. Exceptions complete the future exceptionally; logging them
+     * is up to the caller.
+     */
+    public <T> CompletableFuture<T> supply(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        queued.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    queued.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Rejected after shutdown
+            queued.decrementAndGet();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public CompletableFuture<Void> run(IoAction action) {
+        return supply(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Completes once every task submitted before it has finished.
+     */
+    public CompletableFuture<Void> barrier() {
+        return run(() -> { });
+    }
+
+    /**
+     * Lets the queued tasks finish, waiting at most the given time, and accepts no new ones.
+     *
+     * @return false if tasks were still running when the time ran out
+     */
+    public boolean drain(long timeout, TimeUnit unit) {
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Tasks submitted but not finished yet, including the running one.
+     */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    @FunctionalInterface
+    public interface IoAction {
+        void run() throws Exception;
+    }
+}
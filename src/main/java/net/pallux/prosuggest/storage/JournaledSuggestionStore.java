@@ -0,0 +1,148 @@
+package net.pallux.prosuggest.storage;
+
+import net.pallux.prosuggest.models.Suggestion;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Stores suggestions as a snapshot file plus a {@link SuggestionJournal} of the changes made since.
+ * <p>
+ * Writes only append to the journal. The store keeps a detached copy of the persisted state,
+ * which is written out as a new snapshot once the journal grows past the compaction threshold
+ * and when the store is closed. Subclasses only decide how the snapshot is encoded.
+ */
+public abstract class JournaledSuggestionStore implements SuggestionStore {
+
+    protected final File file;
+    protected final Logger logger;
+    private final SuggestionJournal journal;
+    private final FlushMetrics metrics;
+    private final int compactThreshold;
+    private final boolean syncWrites;
+    private final Map<Integer, Suggestion> persisted;
+    private final List<SuggestionChange> pending;
+
+    protected JournaledSuggestionStore(File file, Logger logger, FlushMetrics metrics, int compactThreshold,
+                                       boolean syncWrites) {
+        this.file = file;
+        this.logger = logger;
+        this.journal = new SuggestionJournal(
+                new File(file.getParentFile(), file.getName() + ".journal"), logger);
+        this.metrics = metrics;
+        this.compactThreshold = compactThreshold;
+        this.syncWrites = syncWrites;
+        this.persisted = new LinkedHashMap<>();
+        this.pending = new ArrayList<>();
+    }
+
+    /**
+     * Reads the snapshot file, which is guaranteed to exist.
+     */
+    protected abstract Map<Integer, Suggestion> readSnapshot() throws IOException;
+
+    /**
+     * Writes a complete snapshot to the given file.
+     */
+    protected abstract void writeSnapshot(File target, Collection<Suggestion> suggestions) throws IOException;
+
+    @Override
+    public Map<Integer, Suggestion> load() throws IOException {
+        Map<Integer, Suggestion> loaded = file.exists() ? readSnapshot() : new LinkedHashMap<>();
+
+        // Replay the changes journaled since the snapshot was written
+        int replayed = journal.replay(loaded);
+        if (replayed > 0) {
+            logger.info("Replayed " + replayed + " journal records");
+        }
+
+        persisted.clear();
+        for (Map.Entry<Integer, Suggestion> entry : loaded.entrySet()) {
+            persisted.put(entry.getKey(), entry.getValue().copy());
+        }
+        pending.clear();
+
+        return loaded;
+    }
+
+    @Override
+    public void upsert(Suggestion suggestion) {
+        record(SuggestionChange.upsert(suggestion));
+    }
+
+    @Override
+    public void delete(int id) {
+        record(SuggestionChange.delete(id));
+    }
+
+    @Override
+    public void vote(int id, UUID playerUUID, Suggestion.VoteType voteType) {
+        record(SuggestionChange.vote(id, playerUUID, voteType));
+    }
+
+    private void record(SuggestionChange change) {
+        pending.add(change);
+        change.applyTo(persisted);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // On failure the changes stay pending and are appended again by the next flush
+        journal.append(pending, syncWrites);
+        pending.clear();
+
+        if (compactThreshold > 0 && journal.getRecordCount() >= compactThreshold) {
+            compact();
+        }
+    }
+
+    @Override
+    public boolean retainsFailedWrites() {
+        return true;
+    }
+
+    @Override
+    public void replaceAll(Collection<Suggestion> suggestions) throws IOException {
+        persisted.clear();
+        for (Suggestion suggestion : suggestions) {
+            persisted.put(suggestion.getId(), suggestion.copy());
+        }
+        pending.clear();
+        compact();
+    }
+
+    private void compact() throws IOException {
+        long start = System.nanoTime();
+        file.getParentFile().mkdirs();
+
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        writeSnapshot(temp, persisted.values());
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        journal.truncate();
+        // The snapshot holds everything that was still waiting for the journal
+        pending.clear();
+        metrics.recordCompaction(System.nanoTime() - start);
+    }
+
+    protected int getJournalRecordCount() {
+        return journal.getRecordCount();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } catch (IOException e) {
+            // The snapshot below is the last chance for these changes
+            logger.warning("Could not append to the suggestion journal while closing: " + e.getMessage());
+        }
+        if (journal.getRecordCount() > 0 || !pending.isEmpty()) {
+            compact();
+        }
+        journal.close();
+    }
+}
@@ -0,0 +1,68 @@
+package net.pallux.prosuggest.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the CPU-bound part of loading, such as decoding records, on a short-lived fork-join pool.
+ */
+final class ParallelLoader {
+
+    private static final int MIN_PARALLEL_RECORDS = 64;
+
+    private ParallelLoader() {
+    }
+
+    /**
+     * Decodes small records in parallel, unless there are too few to be worth a pool.
+     */
+    static <T, R> List<R> map(List<T> items, IoFunction<T, R> mapper) throws IOException {
+        return map(items, MIN_PARALLEL_RECORDS, mapper);
+    }
+
+    /**
+     * Maps every item in parallel and returns the results in the original order.
+     */
+    static <T, R> List<R> map(List<T> items, int minParallelItems, IoFunction<T, R> mapper) throws IOException {
+        if (items.size() < Math.max(2, minParallelItems)) {
+            List<R> results = new ArrayList<>(items.size());
+            for (T item : items) {
+                results.add(mapper.apply(item));
+            }
+            return results;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors()));
+        try {
+            return pool.submit(() -> items.parallelStream()
+                    .map(item -> {
+                        try {
+                            return mapper.apply(item);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading suggestions", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException("Could not load suggestions", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @FunctionalInterface
+    interface IoFunction<T, R> {
+        R apply(T item) throws IOException;
+    }
+}
@@ -0,0 +1,118 @@
+package net.pallux.prosuggest.storage;
+
+import net.pallux.prosuggest.models.PlayerDictionary;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+/**
+ * Persists the {@link PlayerDictionary} so players keep their IDs across restarts.
+ * <p>
+ * The file is a small header followed by one 16-byte UUID per player in ID order, and new
+ * players are only ever appended. Stores still write full UUIDs, so the dictionary never
+ * has to be read to make sense of the suggestion data and a lost file only costs new IDs.
+ */
+public class PlayerDictionaryFile {
+
+    private static final int MAGIC = 0x50535044; // "PSPD"
+    private static final short VERSION = 1;
+    private static final int HEADER_LENGTH = 4 + 2;
+    private static final int RECORD_LENGTH = 16;
+
+    private final File file;
+    private final Logger logger;
+    private final PlayerDictionary dictionary;
+    private int persisted;
+
+    public PlayerDictionaryFile(File file, Logger logger, PlayerDictionary dictionary) {
+        this.file = file;
+        this.logger = logger;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Reads the file into the dictionary. Must run before any suggestions are loaded so the
+     * stored IDs are the ones that get used.
+     */
+    public void load() throws IOException {
+        persisted = 0;
+        if (!file.exists() || file.length() < HEADER_LENGTH) {
+            rewrite();
+            return;
+        }
+
+        boolean matches = true;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                throw new IOException(file.getName() + " is not a player dictionary");
+            }
+
+            int id = 0;
+            while (buffer.remaining() >= RECORD_LENGTH) {
+                if (dictionary.intern(buffer.getLong(), buffer.getLong()) != id) {
+                    // The dictionary already held other players, e.g. the file was replaced
+                    matches = false;
+                }
+                id++;
+            }
+            persisted = id;
+
+            if (buffer.hasRemaining()) {
+                logger.warning("Ignoring a torn record at the end of " + file.getName());
+                matches = false;
+            }
+        }
+
+        if (!matches) {
+            rewrite();
+        }
+    }
+
+    /**
+     * Appends every player added since the last call.
+     */
+    public void flush() throws IOException {
+        int size = dictionary.size();
+        if (size <= persisted) return;
+
+        ByteBuffer buffer = ByteBuffer.allocate((size - persisted) * RECORD_LENGTH);
+        for (int id = persisted; id < size; id++) {
+            buffer.putLong(dictionary.getMostSignificantBits(id));
+            buffer.putLong(dictionary.getLeastSignificantBits(id));
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        persisted = size;
+    }
+
+    private void rewrite() throws IOException {
+        file.getParentFile().mkdirs();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            header.putInt(MAGIC);
+            header.putShort(VERSION);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        }
+        persisted = 0;
+        flush();
+    }
+
+    public int getPersistedCount() {
+        return persisted;
+    }
+}
@@ -0,0 +1,181 @@
+package net.pallux.prosuggest.storage;
+
+import net.pallux.prosuggest.models.Suggestion;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Spreads suggestions over many small YAML files so a change only rewrites the file it lands in.
+ * <p>
+ * With a positive shard count, suggestions are hashed by ID into that many files. With zero,
+ * every suggestion gets a file of its own. Like the journaled stores, this store keeps a
+ * detached copy of the persisted state, grouped by shard, and rewrites only the shards that
+ * changed since the last flush. Shards are loaded in parallel on a fork-join pool.
+ */
+public class ShardedSuggestionStore implements SuggestionStore {
+
+    private static final String EXTENSION = ".yml";
+
+    private final File directory;
+    private final Logger logger;
+    private final int shardCount;
+    // File names of the hashed shards, built once
+    private final String[] shardNames;
+    private final Map<String, Map<Integer, Suggestion>> shards;
+    private final Set<String> dirtyShards;
+
+    public ShardedSuggestionStore(File directory, Logger logger, int shardCount) {
+        this.directory = directory;
+        this.logger = logger;
+        this.shardCount = Math.max(0, shardCount);
+        this.shardNames = new String[this.shardCount];
+        for (int i = 0; i < this.shardCount; i++) {
+            shardNames[i] = String.format("shard-%03d", i);
+        }
+        this.shards = new HashMap<>();
+        this.dirtyShards = new HashSet<>();
+    }
+
+    private String shardOf(int id) {
+        if (shardCount == 0) return "suggestion-" + id;
+        return shardNames[Math.floorMod(Integer.hashCode(id), shardCount)];
+    }
+
+    private Map<Integer, Suggestion> shard(String name) {
+        return shards.computeIfAbsent(name, key -> new LinkedHashMap<>());
+    }
+
+    @Override
+    public Map<Integer, Suggestion> load() throws IOException {
+        directory.mkdirs();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        List<File> shardFiles = files == null ? Collections.emptyList() : Arrays.asList(files);
+
+        // Each shard is parsed on its own worker
+        List<Map.Entry<String, Map<Integer, Suggestion>>> parsed = ParallelLoader.map(shardFiles, 2,
+                file -> Map.entry(shardName(file), YamlSuggestionStore.readFile(file, logger, false)));
+
+        shards.clear();
+        dirtyShards.clear();
+        List<Suggestion> loaded = new ArrayList<>();
+
+        for (Map.Entry<String, Map<Integer, Suggestion>> entry : parsed) {
+            String fileShard = entry.getKey();
+            shard(fileShard);
+
+            for (Suggestion suggestion : entry.getValue().values()) {
+                String target = shardOf(suggestion.getId());
+                if (!target.equals(fileShard)) {
+                    // The shard layout changed since this file was written
+                    dirtyShards.add(fileShard);
+                    dirtyShards.add(target);
+                }
+                shard(target).put(suggestion.getId(), suggestion.copy());
+                loaded.add(suggestion);
+            }
+        }
+
+        // Shards carry no global order, so restore creation order
+        loaded.sort(Comparator.comparing(Suggestion::getCreatedAt).thenComparingInt(Suggestion::getId));
+        Map<Integer, Suggestion> result = new LinkedHashMap<>();
+        for (Suggestion suggestion : loaded) {
+            result.put(suggestion.getId(), suggestion);
+        }
+
+        logger.info("Loaded " + parsed.size() + " suggestion shards");
+        return result;
+    }
+
+    private String shardName(File file) {
+        String name = file.getName();
+        return name.substring(0, name.length() - EXTENSION.length());
+    }
+
+    @Override
+    public void upsert(Suggestion suggestion) {
+        String name = shardOf(suggestion.getId());
+        SuggestionChange.upsert(suggestion).applyTo(shard(name));
+        dirtyShards.add(name);
+    }
+
+    @Override
+    public void delete(int id) {
+        String name = shardOf(id);
+        shard(name).remove(id);
+        dirtyShards.add(name);
+    }
+
+    @Override
+    public void vote(int id, UUID playerUUID, Suggestion.VoteType voteType) {
+        String name = shardOf(id);
+        Suggestion suggestion = shard(name).get(id);
+        if (suggestion != null) {
+            suggestion.setVote(playerUUID, voteType);
+            dirtyShards.add(name);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        Iterator<String> iterator = dirtyShards.iterator();
+        while (iterator.hasNext()) {
+            String name = iterator.next();
+            writeShard(name);
+            iterator.remove();
+        }
+    }
+
+    // A shard that fails to write stays dirty
+    @Override
+    public boolean retainsFailedWrites() {
+        return true;
+    }
+
+    private void writeShard(String name) throws IOException {
+        File file = new File(directory, name + EXTENSION);
+        Map<Integer, Suggestion> content = shards.get(name);
+
+        if (content == null || content.isEmpty()) {
+            shards.remove(name);
+            Files.deleteIfExists(file.toPath());
+            return;
+        }
+
+        File temp = new File(directory, name + EXTENSION + ".tmp");
+        YamlSuggestionStore.writeFile(temp, content.values());
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void replaceAll(Collection<Suggestion> suggestions) throws IOException {
+        // Every existing shard is rewritten or removed
+        dirtyShards.addAll(shards.keySet());
+        for (Map<Integer, Suggestion> shard : shards.values()) {
+            shard.clear();
+        }
+
+        for (Suggestion suggestion : suggestions) {
+            String name = shardOf(suggestion.getId());
+            shard(name).put(suggestion.getId(), suggestion.copy());
+            dirtyShards.add(name);
+        }
+
+        directory.mkdirs();
+        flush();
+    }
+
+    @Override
+    public String getDescription() {
+        return "sharded (" + shards.size() + (shardCount == 0 ? " files" : " of " + shardCount + " shards") + ")";
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
@@ -0,0 +1,230 @@
+package net.pallux.prosuggest.storage;
+
+import net.pallux.prosuggest.models.Suggestion;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Stores suggestions in an embedded SQLite database.
+ * <p>
+ * Votes live in their own table keyed by (suggestion, player), so a single vote is a single
+ * row write. Writes are batched into one transaction per {@link #flush()}; a write that fails
+ * rolls back the whole batch, which the caller then writes again.
+ */
+public class SqliteSuggestionStore implements SuggestionStore {
+
+    private static final int VOTE_UP = 1;
+    private static final int VOTE_DOWN = -1;
+
+    private final File file;
+    private Connection connection;
+    private PreparedStatement upsertStatement;
+    private PreparedStatement deleteStatement;
+    private PreparedStatement deleteVotesStatement;
+    private PreparedStatement voteStatement;
+    private PreparedStatement unvoteStatement;
+
+    public SqliteSuggestionStore(File file) {
+        this.file = file;
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection == null) {
+            file.getParentFile().mkdirs();
+            connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                statement.execute("CREATE TABLE IF NOT EXISTS suggestions ("
+                        + "id INTEGER PRIMARY KEY, "
+                        + "title TEXT NOT NULL, "
+                        + "description TEXT NOT NULL, "
+                        + "author_uuid TEXT NOT NULL, "
+                        + "author_name TEXT NOT NULL, "
+                        + "created_at TEXT NOT NULL, "
+                        + "admin_response TEXT)");
+                statement.execute("CREATE TABLE IF NOT EXISTS votes ("
+                        + "suggestion_id INTEGER NOT NULL, "
+                        + "player_uuid TEXT NOT NULL, "
+                        + "vote INTEGER NOT NULL, "
+                        + "PRIMARY KEY (suggestion_id, player_uuid))");
+                statement.execute("CREATE INDEX IF NOT EXISTS idx_votes_player ON votes (player_uuid)");
+            }
+
+            connection.setAutoCommit(false);
+            upsertStatement = connection.prepareStatement("INSERT INTO suggestions "
+                    + "(id, title, description, author_uuid, author_name, created_at, admin_response) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT(id) DO UPDATE SET "
+                    + "title = excluded.title, description = excluded.description, "
+                    + "author_name = excluded.author_name, admin_response = excluded.admin_response");
+            deleteStatement = connection.prepareStatement("DELETE FROM suggestions WHERE id = ?");
+            deleteVotesStatement = connection.prepareStatement("DELETE FROM votes WHERE suggestion_id = ?");
+            voteStatement = connection.prepareStatement(
+                    "INSERT OR REPLACE INTO votes (suggestion_id, player_uuid, vote) VALUES (?, ?, ?)");
+            unvoteStatement = connection.prepareStatement(
+                    "DELETE FROM votes WHERE suggestion_id = ? AND player_uuid = ?");
+        }
+        return connection;
+    }
+
+    @Override
+    public Map<Integer, Suggestion> load() throws IOException {
+        Map<Integer, Suggestion> loaded = new LinkedHashMap<>();
+
+        try (Statement statement = connection().createStatement()) {
+            try (ResultSet rows = statement.executeQuery("SELECT id, title, description, author_uuid, "
+                    + "author_name, created_at, admin_response FROM suggestions ORDER BY rowid")) {
+                while (rows.next()) {
+                    Suggestion suggestion = new Suggestion(rows.getInt(1), rows.getString(2), rows.getString(3),
+                            UUID.fromString(rows.getString(4)), rows.getString(5));
+                    suggestion.setCreatedAt(LocalDateTime.parse(rows.getString(6)));
+                    suggestion.setAdminResponse(rows.getString(7));
+                    loaded.put(suggestion.getId(), suggestion);
+                }
+            }
+
+            try (ResultSet rows = statement.executeQuery("SELECT suggestion_id, player_uuid, vote FROM votes")) {
+                while (rows.next()) {
+                    Suggestion suggestion = loaded.get(rows.getInt(1));
+                    if (suggestion != null) {
+                        suggestion.setVote(UUID.fromString(rows.getString(2)), rows.getInt(3) == VOTE_UP
+                                ? Suggestion.VoteType.UPVOTE : Suggestion.VoteType.DOWNVOTE);
+                    }
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            throw new IOException("Could not load suggestions from " + file.getName(), e);
+        }
+
+        return loaded;
+    }
+
+    @Override
+    public void upsert(Suggestion suggestion) throws IOException {
+        try {
+            connection();
+            writeSuggestion(suggestion);
+        } catch (SQLException e) {
+            rollback();
+            throw new IOException("Could not save suggestion " + suggestion.getDisplayId(), e);
+        }
+    }
+
+    private void writeSuggestion(Suggestion suggestion) throws SQLException {
+        upsertStatement.setInt(1, suggestion.getId());
+        upsertStatement.setString(2, suggestion.getTitle());
+        upsertStatement.setString(3, suggestion.getDescription());
+        upsertStatement.setString(4, suggestion.getAuthorUUID().toString());
+        upsertStatement.setString(5, suggestion.getAuthorName());
+        upsertStatement.setString(6, suggestion.getCreatedAt().toString());
+        upsertStatement.setString(7, suggestion.getAdminResponse());
+        upsertStatement.executeUpdate();
+    }
+
+    @Override
+    public void delete(int id) throws IOException {
+        try {
+            connection();
+            deleteVotesStatement.setInt(1, id);
+            deleteVotesStatement.executeUpdate();
+            deleteStatement.setInt(1, id);
+            deleteStatement.executeUpdate();
+        } catch (SQLException e) {
+            rollback();
+            throw new IOException("Could not delete suggestion " + Suggestion.formatId(id), e);
+        }
+    }
+
+    @Override
+    public void vote(int id, UUID playerUUID, Suggestion.VoteType voteType) throws IOException {
+        try {
+            connection();
+            writeVote(id, playerUUID, voteType);
+        } catch (SQLException e) {
+            rollback();
+            throw new IOException("Could not save vote on suggestion " + Suggestion.formatId(id), e);
+        }
+    }
+
+    private void writeVote(int id, UUID playerUUID, Suggestion.VoteType voteType) throws SQLException {
+        if (voteType == null) {
+            unvoteStatement.setInt(1, id);
+            unvoteStatement.setString(2, playerUUID.toString());
+            unvoteStatement.executeUpdate();
+        } else {
+            voteStatement.setInt(1, id);
+            voteStatement.setString(2, playerUUID.toString());
+            voteStatement.setInt(3, voteType == Suggestion.VoteType.UPVOTE ? VOTE_UP : VOTE_DOWN);
+            voteStatement.executeUpdate();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (connection == null) return;
+        try {
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            throw new IOException("Could not commit suggestion changes", e);
+        }
+    }
+
+    @Override
+    public void replaceAll(Collection<Suggestion> suggestions) throws IOException {
+        try {
+            connection();
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DELETE FROM votes");
+                statement.executeUpdate("DELETE FROM suggestions");
+            }
+
+            for (Suggestion suggestion : suggestions) {
+                writeSuggestion(suggestion);
+                for (UUID uuid : suggestion.getUpvotes()) {
+                    writeVote(suggestion.getId(), uuid, Suggestion.VoteType.UPVOTE);
+                }
+                for (UUID uuid : suggestion.getDownvotes()) {
+                    writeVote(suggestion.getId(), uuid, Suggestion.VoteType.DOWNVOTE);
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            throw new IOException("Could not replace stored suggestions", e);
+        }
+    }
+
+    private void rollback() {
+        if (connection == null) return;
+        try {
+            connection.rollback();
+        } catch (SQLException ignored) {
+            // The original failure is more useful to the caller
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "sqlite (" + file.getName() + ")";
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (connection == null) return;
+        try {
+            connection.commit();
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException("Could not close " + file.getName(), e);
+        } finally {
+            connection = null;
+        }
+    }
+}
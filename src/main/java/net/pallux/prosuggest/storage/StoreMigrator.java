@@ -0,0 +1,64 @@
+package net.pallux.prosuggest.storage;
+
+import net.pallux.prosuggest.models.Suggestion;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * One-shot import of the legacy YAML suggestions file into another store.
+ */
+public final class StoreMigrator {
+
+    private StoreMigrator() {
+    }
+
+    /**
+     * Loads the target store and, if it is still empty, copies the YAML file (and its journal) into it.
+     * The YAML file is renamed afterwards, also when it is skipped, so it is only looked at once.
+     *
+     * @return everything the target store holds afterwards
+     */
+    public static Map<Integer, Suggestion> loadMigrating(File yamlFile, SuggestionStore target,
+                                                         Logger logger) throws IOException {
+        Map<Integer, Suggestion> loaded = target.load();
+        if (!yamlFile.exists() || yamlFile.length() == 0) return loaded;
+
+        if (!loaded.isEmpty()) {
+            File skipped = moveAside(yamlFile, ".skipped");
+            logger.warning(yamlFile.getName() + " was not migrated because " + target.getDescription()
+                    + " already contains suggestions, it was renamed to " + skipped.getName());
+            return loaded;
+        }
+
+        // Read snapshot and journal directly, a YAML store would rewrite the file when closed
+        Map<Integer, Suggestion> suggestions = YamlSuggestionStore.readFile(yamlFile, logger, true);
+        new SuggestionJournal(journalOf(yamlFile), logger).replay(suggestions);
+
+        target.replaceAll(suggestions.values());
+        moveAside(yamlFile, ".migrated");
+
+        logger.info("Migrated " + suggestions.size() + " suggestions from " + yamlFile.getName()
+                + " to " + target.getDescription());
+        return suggestions;
+    }
+
+    private static File moveAside(File yamlFile, String suffix) throws IOException {
+        File renamed = new File(yamlFile.getParentFile(), yamlFile.getName() + suffix);
+        if (!yamlFile.renameTo(renamed)) {
+            throw new IOException("Could not rename " + yamlFile.getName() + " to " + renamed.getName());
+        }
+
+        File journal = journalOf(yamlFile);
+        if (journal.exists() && !journal.renameTo(journalOf(renamed))) {
+            throw new IOException("Could not rename " + journal.getName());
+        }
+        return renamed;
+    }
+
+    private static File journalOf(File file) {
+        return new File(file.getParentFile(), file.getName() + ".journal");
+    }
+}
@@ -0,0 +1,185 @@
+package net.pallux.prosuggest.storage;
+
+import net.pallux.prosuggest.models.Suggestion;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A single immutable suggestion mutation, handed from the main thread to a {@link SuggestionStore}.
+ * <p>
+ * Changes carry absolute state rather than toggles, so applying a change that is already
+ * reflected in the stored data is harmless. The YAML store journals them as-is.
+ */
+public final class SuggestionChange {
+
+    public static final byte UPSERT = 1;
+    public static final byte VOTE = 2;
+    public static final byte DELETE = 3;
+
+    private static final byte VOTE_NONE = 0;
+    private static final byte VOTE_UP = 1;
+    private static final byte VOTE_DOWN = 2;
+
+    private final byte op;
+    private final int id;
+    private final String title;
+    private final String description;
+    private final UUID uuid;
+    private final String authorName;
+    private final LocalDateTime createdAt;
+    private final String adminResponse;
+    private final byte voteState;
+
+    private SuggestionChange(byte op, int id, String title, String description, UUID uuid,
+                          String authorName, LocalDateTime createdAt, String adminResponse, byte voteState) {
+        this.op = op;
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.uuid = uuid;
+        this.authorName = authorName;
+        this.createdAt = createdAt;
+        this.adminResponse = adminResponse;
+        this.voteState = voteState;
+    }
+
+    /**
+     * Captures every field of the suggestion except its votes, which are journaled separately.
+     */
+    public static SuggestionChange upsert(Suggestion suggestion) {
+        return new SuggestionChange(UPSERT, suggestion.getId(), suggestion.getTitle(), suggestion.getDescription(),
+                suggestion.getAuthorUUID(), suggestion.getAuthorName(), suggestion.getCreatedAt(),
+                suggestion.getAdminResponse(), VOTE_NONE);
+    }
+
+    public static SuggestionChange vote(int id, UUID playerUUID, Suggestion.VoteType voteType) {
+        byte state = voteType == null ? VOTE_NONE : voteType == Suggestion.VoteType.UPVOTE ? VOTE_UP : VOTE_DOWN;
+        return new SuggestionChange(VOTE, id, null, null, playerUUID, null, null, null, state);
+    }
+
+    public static SuggestionChange delete(int id) {
+        return new SuggestionChange(DELETE, id, null, null, null, null, null, null, VOTE_NONE);
+    }
+
+    public void applyTo(Map<Integer, Suggestion> suggestions) {
+        switch (op) {
+            case UPSERT:
+                Suggestion existing = suggestions.get(id);
+                if (existing == null) {
+                    suggestions.put(id, toSuggestion());
+                } else {
+                    existing.setTitle(title);
+                    existing.setDescription(description);
+                    existing.setAuthorName(authorName);
+                    existing.setAdminResponse(adminResponse);
+                }
+                break;
+            case VOTE:
+                Suggestion target = suggestions.get(id);
+                if (target != null) {
+                    target.setVote(uuid, getVoteType());
+                }
+                break;
+            case DELETE:
+                suggestions.remove(id);
+                break;
+        }
+    }
+
+    public void applyTo(SuggestionStore store) throws IOException {
+        switch (op) {
+            case UPSERT:
+                store.upsert(toSuggestion());
+                break;
+            case VOTE:
+                store.vote(id, uuid, getVoteType());
+                break;
+            case DELETE:
+                store.delete(id);
+                break;
+        }
+    }
+
+    private Suggestion toSuggestion() {
+        Suggestion suggestion = new Suggestion(id, title, description, uuid, authorName);
+        suggestion.setCreatedAt(createdAt);
+        suggestion.setAdminResponse(adminResponse);
+        return suggestion;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeByte(op);
+        out.writeInt(id);
+
+        switch (op) {
+            case UPSERT:
+                out.writeUTF(title);
+                out.writeUTF(description);
+                writeUuid(out, uuid);
+                out.writeUTF(authorName);
+                out.writeUTF(createdAt.toString());
+                out.writeBoolean(adminResponse != null);
+                if (adminResponse != null) {
+                    out.writeUTF(adminResponse);
+                }
+                break;
+            case VOTE:
+                writeUuid(out, uuid);
+                out.writeByte(voteState);
+                break;
+            default:
+                break;
+        }
+    }
+
+    static SuggestionChange read(DataInputStream in) throws IOException {
+        byte op = in.readByte();
+        int id = in.readInt();
+        if (id < 0) {
+            throw new IOException("Invalid suggestion id " + id);
+        }
+
+        switch (op) {
+            case UPSERT:
+                String title = in.readUTF();
+                String description = in.readUTF();
+                UUID author = readUuid(in);
+                String authorName = in.readUTF();
+                LocalDateTime createdAt = LocalDateTime.parse(in.readUTF());
+                String response = in.readBoolean() ? in.readUTF() : null;
+                return new SuggestionChange(UPSERT, id, title, description, author, authorName, createdAt,
+                        response, VOTE_NONE);
+            case VOTE:
+                UUID player = readUuid(in);
+                byte state = in.readByte();
+                return new SuggestionChange(VOTE, id, null, null, player, null, null, null, state);
+            case DELETE:
+                return delete(id);
+            default:
+                throw new IOException("Unknown journal record type " + op);
+        }
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private Suggestion.VoteType getVoteType() {
+        if (voteState == VOTE_UP) return Suggestion.VoteType.UPVOTE;
+        if (voteState == VOTE_DOWN) return Suggestion.VoteType.DOWNVOTE;
+        return null;
+    }
+
+    public byte getOp() { return op; }
+    public int getId() { return id; }
+}
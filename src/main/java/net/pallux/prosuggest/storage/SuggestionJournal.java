@@ -0,0 +1,197 @@
+package net.pallux.prosuggest.storage;
+
+import net.pallux.prosuggest.models.Suggestion;
+
+import java.io.*;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of suggestion mutations kept beside the snapshot file.
+ * <p>
+ * Every record is framed as {@code [length][payload][crc32]}. A torn or corrupt tail,
+ * e.g. after a crash mid-append, ends the replay and is cut off so new records are
+ * appended after the last intact one. A failed append is cut off the same way before the
+ * journal is used again, so later records never end up behind a torn one.
+ */
+public class SuggestionJournal implements Closeable {
+
+    private static final int MAX_RECORD_LENGTH = 1 << 20;
+
+    private final File file;
+    private final Logger logger;
+    private DataOutputStream out;
+    private FileOutputStream fileOut;
+    // Length of the intact records, or -1 before the file was read; anything past it is left over from a failed append
+    private long validLength = -1;
+    private int recordCount;
+
+    public SuggestionJournal(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    /**
+     * Applies every intact record to the given suggestions and returns how many were replayed.
+     */
+    public int replay(Map<Integer, Suggestion> suggestions) throws IOException {
+        close();
+        recordCount = 0;
+        validLength = 0;
+        if (!file.exists()) return 0;
+
+        long intactLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                if (length <= 0 || length > MAX_RECORD_LENGTH) {
+                    logger.warning("Suggestion journal has a corrupt record at offset " + intactLength);
+                    break;
+                }
+
+                byte[] payload = new byte[length];
+                int storedCrc;
+                try {
+                    in.readFully(payload);
+                    storedCrc = in.readInt();
+                } catch (EOFException e) {
+                    logger.warning("Suggestion journal ends with an incomplete record, discarding it");
+                    break;
+                }
+
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != storedCrc) {
+                    logger.warning("Suggestion journal has a checksum mismatch at offset " + intactLength);
+                    break;
+                }
+
+                SuggestionChange.read(new DataInputStream(new ByteArrayInputStream(payload))).applyTo(suggestions);
+                intactLength += 8 + length;
+                recordCount++;
+            }
+        }
+
+        if (intactLength < file.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(intactLength);
+            }
+        }
+        validLength = intactLength;
+
+        return recordCount;
+    }
+
+    /**
+     * Appends the records. If this fails, none of them count as written: the file is cut back to
+     * the last intact record and the caller should append them again later.
+     */
+    public void append(List<SuggestionChange> records, boolean sync) throws IOException {
+        if (records.isEmpty()) return;
+
+        // Encode everything first so a bad record cannot leave half a batch behind
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+        DataOutputStream payloadOut = new DataOutputStream(buffer);
+        ByteArrayOutputStream batch = new ByteArrayOutputStream(128 * records.size());
+        DataOutputStream batchOut = new DataOutputStream(batch);
+        CRC32 crc = new CRC32();
+
+        for (SuggestionChange record : records) {
+            buffer.reset();
+            record.write(payloadOut);
+            payloadOut.flush();
+
+            byte[] payload = buffer.toByteArray();
+            crc.reset();
+            crc.update(payload);
+
+            batchOut.writeInt(payload.length);
+            batchOut.write(payload);
+            batchOut.writeInt((int) crc.getValue());
+        }
+        batchOut.flush();
+
+        try {
+            if (out == null) {
+                open();
+            }
+            batch.writeTo(out);
+            out.flush();
+            if (sync) {
+                fileOut.getFD().sync();
+            }
+        } catch (IOException e) {
+            if (validLength >= 0) {
+                discardTornTail();
+            }
+            throw e;
+        }
+
+        validLength += batch.size();
+        recordCount += records.size();
+    }
+
+    private void open() throws IOException {
+        // Also cuts off what a failed append may have left
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (validLength < 0 || raf.length() < validLength) {
+                validLength = raf.length();
+            } else if (raf.length() > validLength) {
+                raf.setLength(validLength);
+            }
+        }
+        fileOut = new FileOutputStream(file, true);
+        out = new DataOutputStream(new BufferedOutputStream(fileOut));
+    }
+
+    // Closes the stream and cuts the file back to the intact records; if that fails too, the next open retries
+    private void discardTornTail() {
+        try {
+            if (out != null) out.close();
+        } catch (IOException ignored) {
+            // The stream is abandoned either way
+        }
+        out = null;
+        fileOut = null;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(validLength);
+        } catch (IOException e) {
+            logger.warning("Could not cut a failed append off the suggestion journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Discards every record. Only call this once a snapshot containing them is safely on disk.
+     */
+    public void truncate() throws IOException {
+        close();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(0);
+        }
+        validLength = 0;
+        recordCount = 0;
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+            fileOut = null;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package net.pallux.prosuggest.storage;
+
+import net.pallux.prosuggest.models.Suggestion;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Persistent backend for suggestions and their votes.
+ * <p>
+ * Stores are not thread-safe. Apart from {@link #load()} during startup, every call is made
+ * from the single writer thread of the {@link WriteBehindFlusher}.
+ */
+public interface SuggestionStore extends Closeable {
+
+    /**
+     * Loads every stored suggestion, keyed by ID in creation order.
+     */
+    Map<Integer, Suggestion> load() throws IOException;
+
+    /**
+     * Inserts or updates everything but the votes of the given suggestion.
+     */
+    void upsert(Suggestion suggestion) throws IOException;
+
+    /**
+     * Removes a suggestion together with its votes.
+     */
+    void delete(int id) throws IOException;
+
+    /**
+     * Sets a player's vote on a suggestion, or removes it if {@code voteType} is null.
+     */
+    void vote(int id, UUID playerUUID, Suggestion.VoteType voteType) throws IOException;
+
+    /**
+     * Makes every preceding write durable.
+     */
+    void flush() throws IOException;
+
+    /**
+     * Whether writes that a failed {@link #flush()} did not make durable are kept and written by
+     * the next flush, so the caller must not write them again.
+     */
+    default boolean retainsFailedWrites() {
+        return false;
+    }
+
+    /**
+     * Replaces the whole content of the store, votes included.
+     */
+    void replaceAll(Collection<Suggestion> suggestions) throws IOException;
+
+    /**
+     * Short human readable summary for {@code /psadmin stats}.
+     */
+    String getDescription();
+}
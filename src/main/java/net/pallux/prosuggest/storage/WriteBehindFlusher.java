@@ -0,0 +1,294 @@
+package net.pallux.prosuggest.storage;
+
+import net.pallux.prosuggest.ProSuggest;
+import net.pallux.prosuggest.managers.SuggestionManager;
+import net.pallux.prosuggest.models.Suggestion;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces suggestion mutations and writes them to the {@link SuggestionStore} off the main thread.
+ * <p>
+ * Mutations only mark a suggestion (or a single player's vote on it) as dirty. A repeating
+ * task drains the dirty entries into {@link SuggestionChange}s and hands them to the plugin's
+ * {@link IoExecutor}, which applies them to the store and flushes it once per batch. Staleness
+ * is bounded by the flush interval, and a flush is pulled forward once too many entries
+ * are pending. If a batch fails to write, the next flush retries it: stores that keep failed
+ * writes are simply flushed again, for the others the batch's entries are marked dirty again.
+ */
+public class WriteBehindFlusher {
+
+    private final ProSuggest plugin;
+    private final SuggestionManager suggestionManager;
+    private final Set<Integer> dirty;
+    private final Set<VoteKey> dirtyVotes;
+    private final AtomicLong oldestDirtyAt;
+    private final AtomicBoolean earlyFlushScheduled;
+    // Set when the store kept a failed batch, so the next flush runs even with nothing dirty
+    private final AtomicBoolean retryFailed;
+    private final FlushMetrics metrics;
+    private final IoExecutor io;
+    private volatile SuggestionStore store;
+    private volatile PlayerDictionaryFile dictionaryFile;
+    private BukkitTask task;
+
+    public WriteBehindFlusher(ProSuggest plugin, SuggestionManager suggestionManager, IoExecutor io) {
+        this.plugin = plugin;
+        this.suggestionManager = suggestionManager;
+        this.dirty = ConcurrentHashMap.newKeySet();
+        this.dirtyVotes = ConcurrentHashMap.newKeySet();
+        this.oldestDirtyAt = new AtomicLong();
+        this.earlyFlushScheduled = new AtomicBoolean();
+        this.retryFailed = new AtomicBoolean();
+        this.metrics = new FlushMetrics();
+        this.io = io;
+    }
+
+    /**
+     * Switches to a new store on the I/O thread, closing the previous one, and completes with
+     * everything the new store holds. The player dictionary is read first so stored player IDs
+     * are kept. Nothing is written while the new store is loading.
+     *
+     * @param loader loads the new store, run on the I/O thread
+     */
+    public CompletableFuture<Map<Integer, Suggestion>> open(PlayerDictionaryFile newDictionaryFile,
+                                                         SuggestionStore newStore,
+                                                         Callable<Map<Integer, Suggestion>> loader) {
+        SuggestionStore previous = store;
+        store = null;
+
+        dirty.clear();
+        dirtyVotes.clear();
+        oldestDirtyAt.set(0);
+        retryFailed.set(false);
+
+        return io.supply(() -> {
+            if (previous != null) {
+                closeStore(previous);
+            }
+
+            newDictionaryFile.load();
+            dictionaryFile = newDictionaryFile;
+
+            Map<Integer, Suggestion> loaded = loader.call();
+            store = newStore;
+            return loaded;
+        });
+    }
+
+    public void start() {
+        if (task != null) {
+            task.cancel();
+        }
+
+        long interval = Math.max(1, plugin.getConfigManager().getFlushIntervalTicks());
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::flush, interval, interval);
+    }
+
+    public void markDirty(int id) {
+        dirty.add(id);
+        onMarked();
+    }
+
+    public void markVote(int id, UUID playerUUID) {
+        dirtyVotes.add(new VoteKey(id, playerUUID));
+        onMarked();
+    }
+
+    private void onMarked() {
+        oldestDirtyAt.compareAndSet(0, System.currentTimeMillis());
+
+        int maxDirty = plugin.getConfigManager().getMaxDirtyEntries();
+        if (maxDirty > 0 && dirty.size() + dirtyVotes.size() >= maxDirty && plugin.isEnabled()
+                && earlyFlushScheduled.compareAndSet(false, true)) {
+            Bukkit.getScheduler().runTask(plugin, this::flush);
+        }
+    }
+
+    /**
+     * Turns every dirty entry into a change and queues the write.
+     * Must be called on the main thread.
+     */
+    public void flush() {
+        earlyFlushScheduled.set(false);
+        if (store == null || (dirty.isEmpty() && dirtyVotes.isEmpty() && !retryFailed.get())) return;
+
+        long start = System.nanoTime();
+        oldestDirtyAt.set(0);
+        retryFailed.set(false);
+
+        List<SuggestionChange> changes = new ArrayList<>(dirty.size() + dirtyVotes.size());
+        List<Integer> ids = new ArrayList<>(dirty.size());
+        List<VoteKey> votes = new ArrayList<>(dirtyVotes.size());
+
+        // Suggestion changes first so votes never precede the suggestion they belong to
+        Iterator<Integer> iterator = dirty.iterator();
+        while (iterator.hasNext()) {
+            int id = iterator.next();
+            iterator.remove();
+            ids.add(id);
+
+            Suggestion suggestion = suggestionManager.getSuggestion(id);
+            changes.add(suggestion != null ? SuggestionChange.upsert(suggestion) : SuggestionChange.delete(id));
+        }
+
+        Iterator<VoteKey> voteIterator = dirtyVotes.iterator();
+        while (voteIterator.hasNext()) {
+            VoteKey key = voteIterator.next();
+            voteIterator.remove();
+            votes.add(key);
+
+            Suggestion suggestion = suggestionManager.getSuggestion(key.id);
+            if (suggestion != null) {
+                changes.add(SuggestionChange.vote(key.id, key.playerUUID, suggestion.getVoteType(key.playerUUID)));
+            }
+        }
+
+        SuggestionStore target = store;
+        io.run(() -> {
+            if (write(target, changes)) {
+                metrics.record(changes.size(), System.nanoTime() - start);
+            } else if (target.retainsFailedWrites()) {
+                // Marking the batch again would write it a second time
+                if (store == target) retryFailed.set(true);
+            } else {
+                remark(target, ids, votes);
+            }
+        });
+    }
+
+    // Puts a failed batch back on the main thread, unless the store was switched in the meantime
+    private void remark(SuggestionStore target, List<Integer> ids, List<VoteKey> votes) {
+        if (!plugin.isEnabled()) {
+            plugin.getLogger().severe("Could not retry " + (ids.size() + votes.size())
+                    + " suggestion changes while shutting down");
+            return;
+        }
+
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            if (store != target) return;
+
+            dirty.addAll(ids);
+            dirtyVotes.addAll(votes);
+            onMarked();
+        });
+    }
+
+    /**
+     * Flushes pending entries without waiting. The future completes once every queued write has
+     * reached the disk.
+     */
+    public CompletableFuture<Void> flushAsync() {
+        flush();
+        return io.barrier();
+    }
+
+    /**
+     * Queues the last writes and closing the store. Waiting for them is up to whoever drains the
+     * {@link IoExecutor}.
+     */
+    public void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+
+        flush();
+        // Read the store on the I/O thread so a load that is still running gets closed too
+        io.run(() -> {
+            SuggestionStore current = store;
+            if (current != null) {
+                closeStore(current);
+            }
+        });
+    }
+
+    // False if the changes did not reach the store
+    private boolean write(SuggestionStore target, List<SuggestionChange> changes) {
+        try {
+            for (SuggestionChange change : changes) {
+                change.applyTo(target);
+            }
+            target.flush();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not save suggestions, retrying with the next flush!");
+            e.printStackTrace();
+            return false;
+        }
+
+        try {
+            flushDictionary();
+        } catch (IOException e) {
+            // The dictionary file is written again by the next flush
+            plugin.getLogger().severe("Could not save the player dictionary!");
+            e.printStackTrace();
+        }
+        return true;
+    }
+
+    private void closeStore(SuggestionStore target) {
+        try {
+            target.close();
+            flushDictionary();
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not close the suggestion store!");
+            e.printStackTrace();
+        }
+    }
+
+    private void flushDictionary() throws IOException {
+        PlayerDictionaryFile current = dictionaryFile;
+        if (current != null) {
+            current.flush();
+        }
+    }
+
+    public int getPendingCount() {
+        return dirty.size() + dirtyVotes.size();
+    }
+
+    public long getOldestPendingAgeMillis() {
+        long since = oldestDirtyAt.get();
+        return since == 0 ? 0 : System.currentTimeMillis() - since;
+    }
+
+    public String getStoreDescription() {
+        SuggestionStore current = store;
+        return current == null ? "none" : current.getDescription();
+    }
+
+    public FlushMetrics getMetrics() {
+        return metrics;
+    }
+
+    private static final class VoteKey {
+        private final int id;
+        private final UUID playerUUID;
+
+        private VoteKey(int id, UUID playerUUID) {
+            this.id = id;
+            this.playerUUID = playerUUID;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof VoteKey)) return false;
+            VoteKey other = (VoteKey) o;
+            return id == other.id && playerUUID.equals(other.playerUUID);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * id + playerUUID.hashCode();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package net.pallux.prosuggest.storage;
+
+import net.pallux.prosuggest.models.Suggestion;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Journaled store with a human readable YAML snapshot.
+ */
+public class YamlSuggestionStore extends JournaledSuggestionStore {
+
+    public YamlSuggestionStore(File file, Logger logger, FlushMetrics metrics, int compactThreshold,
+                               boolean syncWrites) {
+        super(file, logger, metrics, compactThreshold, syncWrites);
+    }
+
+    @Override
+    protected Map<Integer, Suggestion> readSnapshot() throws IOException {
+        return readFile(file, logger, true);
+    }
+
+    @Override
+    protected void writeSnapshot(File target, Collection<Suggestion> suggestions) throws IOException {
+        writeFile(target, suggestions);
+    }
+
+    /**
+     * Parses the file into plain maps first and then deserializes the entries, in parallel if requested.
+     */
+    static Map<Integer, Suggestion> readFile(File file, Logger logger, boolean parallel) throws IOException {
+        Object root;
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            LoaderOptions options = new LoaderOptions();
+            options.setCodePointLimit(Integer.MAX_VALUE);
+            options.setMaxAliasesForCollections(Integer.MAX_VALUE);
+            root = new Yaml(new SafeConstructor(options)).load(reader);
+        } catch (YAMLException e) {
+            throw new IOException("Could not parse " + file.getName(), e);
+        }
+
+        Map<Integer, Suggestion> loaded = new LinkedHashMap<>();
+        if (!(root instanceof Map)) return loaded;
+
+        Object section = ((Map<?, ?>) root).get("suggestions");
+        if (!(section instanceof Map)) return loaded;
+
+        List<Map.Entry<?, ?>> entries = new ArrayList<>(((Map<?, ?>) section).entrySet());
+        List<Suggestion> suggestions = ParallelLoader.map(entries, parallel ? 0 : Integer.MAX_VALUE,
+                entry -> deserialize(entry, logger));
+
+        for (Suggestion suggestion : suggestions) {
+            if (suggestion != null) {
+                loaded.put(suggestion.getId(), suggestion);
+            }
+        }
+
+        return loaded;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Suggestion deserialize(Map.Entry<?, ?> entry, Logger logger) {
+        try {
+            return new Suggestion((Map<String, Object>) entry.getValue());
+        } catch (Exception e) {
+            logger.warning("Could not load suggestion with key: " + entry.getKey());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    static void writeFile(File target, Collection<Suggestion> suggestions) throws IOException {
+        YamlConfiguration config = new YamlConfiguration();
+        for (Suggestion suggestion : suggestions) {
+            config.set("suggestions." + suggestion.getDisplayId(), suggestion);
+        }
+        config.save(target);
+    }
+
+    @Override
+    public String getDescription() {
+        return "yaml (" + getJournalRecordCount() + " journal records)";
+    }
+}
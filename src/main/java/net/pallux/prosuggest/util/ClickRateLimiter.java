@@ -0,0 +1,158 @@
+package net.pallux.prosuggest.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Token buckets for GUI clicks, one per player.
+ * <p>
+ * Every click takes a token and tokens come back at a fixed rate, up to the burst size, so normal
+ * clicking never notices the limit while an autoclicker is held to the refill rate. A click on the
+ * same slot as the previous one within the debounce time is dropped without taking a token, which
+ * folds double clicks into one. Each clicking player gets a slot in arrays of primitive state,
+ * handed out on the first click and given back by {@link #release} when they leave, so the arrays
+ * stay as large as the most players clicking at once and a click allocates nothing. Main thread only.
+ */
+public class ClickRateLimiter {
+
+    private static final int MIN_CAPACITY = 64;
+
+    private final Map<UUID, Integer> playerSlots;
+    private int[] freeSlots;
+    private int freeCount;
+    private int slotCount;
+
+    private double[] tokens;
+    private long[] lastRefill;
+    private long[] lastClick;
+    private int[] lastSlot;
+
+    private boolean enabled;
+    private double burst;
+    private double tokensPerNano;
+    private long debounceNanos;
+
+    private long clicksAllowed;
+    private long clicksLimited;
+    private long clicksDebounced;
+
+    public ClickRateLimiter(boolean enabled, int burst, double clicksPerSecond, long debounceMillis) {
+        this.playerSlots = new HashMap<>();
+        this.freeSlots = new int[0];
+        this.tokens = new double[0];
+        this.lastRefill = new long[0];
+        this.lastClick = new long[0];
+        this.lastSlot = new int[0];
+        configure(enabled, burst, clicksPerSecond, debounceMillis);
+    }
+
+    public void configure(boolean enabled, int burst, double clicksPerSecond, long debounceMillis) {
+        this.enabled = enabled;
+        this.burst = Math.max(1, burst);
+        this.tokensPerNano = Math.max(0.001, clicksPerSecond) / 1_000_000_000.0;
+        this.debounceNanos = Math.max(0, debounceMillis) * 1_000_000L;
+        // Buckets fuller than a lowered burst size are cut down on their next refill
+    }
+
+    /**
+     * Records a click and tells whether it should be handled.
+     *
+     * @param playerUUID the clicker
+     * @param slot the clicked slot
+     * @return false if the click is over the limit or repeats the last one too quickly
+     */
+    public boolean tryClick(UUID playerUUID, int slot) {
+        if (!enabled) {
+            clicksAllowed++;
+            return true;
+        }
+
+        int player = slotOf(playerUUID);
+        long now = System.nanoTime();
+
+        boolean repeat = lastSlot[player] == slot && now - lastClick[player] < debounceNanos;
+        lastSlot[player] = slot;
+        lastClick[player] = now;
+        if (repeat) {
+            clicksDebounced++;
+            return false;
+        }
+
+        long elapsed = Math.max(0, now - lastRefill[player]);
+        lastRefill[player] = now;
+        double available = Math.min(burst, tokens[player] + elapsed * tokensPerNano);
+        if (available < 1) {
+            tokens[player] = available;
+            clicksLimited++;
+            return false;
+        }
+
+        tokens[player] = available - 1;
+        clicksAllowed++;
+        return true;
+    }
+
+    /**
+     * Frees the player's bucket, e.g. when they leave the server.
+     */
+    public void release(UUID playerUUID) {
+        Integer player = playerSlots.remove(playerUUID);
+        if (player == null) return;
+
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, Math.max(16, freeCount * 2));
+        }
+        freeSlots[freeCount++] = player;
+    }
+
+    /**
+     * Players holding a bucket.
+     */
+    public int size() {
+        return playerSlots.size();
+    }
+
+    public long getClicksAllowed() { return clicksAllowed; }
+
+    /**
+     * Clicks dropped because the player's bucket was empty.
+     */
+    public long getClicksLimited() { return clicksLimited; }
+
+    /**
+     * Clicks dropped as a quick repeat of the previous click.
+     */
+    public long getClicksDebounced() { return clicksDebounced; }
+
+    /**
+     * Approximate heap size of the buckets in bytes.
+     */
+    public long getMemoryFootprint() {
+        return 64 + 4 * 16 + (long) tokens.length * (8 + 8 + 8 + 4)
+                + (long) playerSlots.size() * 64 + 4L * freeSlots.length;
+    }
+
+    private int slotOf(UUID playerUUID) {
+        Integer existing = playerSlots.get(playerUUID);
+        if (existing != null) return existing;
+
+        int player = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+        if (player >= tokens.length) {
+            int newLength = Math.max(MIN_CAPACITY, tokens.length * 2);
+            tokens = Arrays.copyOf(tokens, newLength);
+            lastRefill = Arrays.copyOf(lastRefill, newLength);
+            lastClick = Arrays.copyOf(lastClick, newLength);
+            lastSlot = Arrays.copyOf(lastSlot, newLength);
+        }
+
+        // New players start with a full bucket and no previous click
+        tokens[player] = Double.MAX_VALUE;
+        lastRefill[player] = 0;
+        lastClick[player] = 0;
+        lastSlot[player] = -1;
+        playerSlots.put(playerUUID, player);
+        return player;
+    }
+}
@@ -0,0 +1,165 @@
+package net.pallux.prosuggest.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hash map from primitive {@code int} keys to non-null values, without boxing keys or
+ * allocating entry nodes. Open addressing with linear probing and backward-shift deletion.
+ * Iteration order is unspecified. Not thread-safe.
+ */
+public class IntObjectMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    public IntObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3L < expectedSize * 4L) {
+            capacity *= 2;
+        }
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return the previous value, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) throw new IllegalArgumentException("Null values are not supported");
+
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = value;
+        if (++size * 4L > keys.length * 3L) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * @return the removed value, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int gap = indexOf(key);
+        if (gap < 0) return null;
+
+        V removed = (V) values[gap];
+        int mask = keys.length - 1;
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            if (values[index] == null) break;
+
+            int home = hash(keys[index]) & mask;
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+        }
+
+        values[gap] = null;
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for (Object value : values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> list = new ArrayList<>(size);
+        for (Object value : values) {
+            if (value != null) {
+                list.add((V) value);
+            }
+        }
+        return list;
+    }
+
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (values[index] != null) {
+            if (keys[index] == key) return index;
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == null) continue;
+
+            int index = hash(oldKeys[i]) & mask;
+            while (values[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = oldKeys[i];
+            values[index] = oldValues[i];
+        }
+    }
+
+    private static int hash(int key) {
+        // Sequential IDs would otherwise fill one contiguous run of slots
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,60 @@
+package net.pallux.prosuggest.util;
+
+import java.util.Arrays;
+
+/**
+ * Small set of ints kept as a sorted array. Lookups are binary searches, and appending a value
+ * larger than all others, the common case for new IDs, needs no shifting. Not thread-safe.
+ */
+public class IntSortedSet {
+
+    private int[] values;
+    private int size;
+
+    public IntSortedSet() {
+        this.values = new int[4];
+    }
+
+    public boolean add(int value) {
+        int index = size > 0 && values[size - 1] < value ? -size - 1 : Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) return false;
+
+        index = -index - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+        return true;
+    }
+
+    public boolean remove(int value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) return false;
+
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    public boolean contains(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    /**
+     * The value at the given position in ascending order.
+     */
+    public int get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
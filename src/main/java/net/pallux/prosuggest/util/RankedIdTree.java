@@ -0,0 +1,263 @@
+package net.pallux.prosuggest.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * IDs kept in ascending order of a {@code long} sort key, ties broken by ID. Backed by a treap
+ * whose nodes know their subtree size, so inserts, removals and rank lookups are O(log n) and a
+ * run of k entries starting at any rank is read in O(log n + k). Not thread-safe.
+ */
+public class RankedIdTree {
+
+    private final IntObjectMap<Node> nodes;
+    private Node root;
+    private int seed;
+
+    public RankedIdTree() {
+        this.nodes = new IntObjectMap<>();
+        this.seed = 0x2545F491;
+    }
+
+    /**
+     * Adds the ID or moves it to its new key.
+     *
+     * @return false if the ID was already stored under this key
+     */
+    public boolean put(int id, long key) {
+        Node existing = nodes.get(id);
+        if (existing != null) {
+            if (existing.key == key) return false;
+            root = remove(root, existing.key, id);
+        }
+
+        Node node = new Node(id, key, nextPriority());
+        root = insert(root, node);
+        nodes.put(id, node);
+        return true;
+    }
+
+    public boolean remove(int id) {
+        Node existing = nodes.remove(id);
+        if (existing == null) return false;
+
+        root = remove(root, existing.key, id);
+        return true;
+    }
+
+    public boolean contains(int id) {
+        return nodes.containsKey(id);
+    }
+
+    public void clear() {
+        nodes.clear();
+        root = null;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * The ID at the given rank.
+     */
+    public int get(int rank) {
+        if (rank < 0 || rank >= size()) throw new IndexOutOfBoundsException(rank);
+
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank < leftSize) {
+                node = node.left;
+            } else if (rank == leftSize) {
+                return node.id;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Rank of a stored ID, or -1 if it is not in the tree.
+     */
+    public int rankOf(int id) {
+        Node node = nodes.get(id);
+        return node == null ? -1 : countBefore(node.key, id);
+    }
+
+    /**
+     * Number of entries ordered before the given key and ID, whether or not that entry exists.
+     */
+    public int countBefore(long key, int id) {
+        return count(key, id, false);
+    }
+
+    /**
+     * Number of entries ordered before or at the given key and ID, i.e. the rank right after it.
+     */
+    public int countUpTo(long key, int id) {
+        return count(key, id, true);
+    }
+
+    private int count(long key, int id, boolean inclusive) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            int comparison = compare(node.key, node.id, key, id);
+            if (comparison < 0 || (inclusive && comparison == 0)) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The key a stored ID is ordered by. Only valid if {@link #contains(int)} is true.
+     */
+    public long keyOf(int id) {
+        Node node = nodes.get(id);
+        if (node == null) throw new IllegalArgumentException("ID " + id + " is not in the tree");
+        return node.key;
+    }
+
+    /**
+     * Visits up to {@code count} IDs in order, starting at the given rank.
+     */
+    public void forEach(int fromRank, int count, IntConsumer visitor) {
+        if (count <= 0 || fromRank >= size()) return;
+
+        // Walk down to the starting rank, remembering the ancestors still to be visited
+        Node[] stack = new Node[32];
+        int depth = 0;
+        Node node = root;
+        int rank = Math.max(0, fromRank);
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (rank <= leftSize) {
+                if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+                stack[depth++] = node;
+                if (rank == leftSize) break;
+                node = node.left;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+
+        while (depth > 0 && count > 0) {
+            node = stack[--depth];
+            visitor.accept(node.id);
+            count--;
+
+            for (Node next = node.right; next != null; next = next.left) {
+                if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+                stack[depth++] = next;
+            }
+        }
+    }
+
+    private Node insert(Node node, Node added) {
+        if (node == null) return added;
+
+        if (added.priority > node.priority) {
+            split(node, added.key, added.id, added);
+            return update(added);
+        }
+
+        if (compare(added.key, added.id, node.key, node.id) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return update(node);
+    }
+
+    // Splits the subtree around the key, storing both halves as the children of target
+    private void split(Node node, long key, int id, Node target) {
+        if (node == null) {
+            target.left = null;
+            target.right = null;
+            return;
+        }
+
+        if (compare(node.key, node.id, key, id) < 0) {
+            split(node.right, key, id, target);
+            node.right = target.left;
+            target.left = update(node);
+        } else {
+            split(node.left, key, id, target);
+            node.left = target.right;
+            target.right = update(node);
+        }
+    }
+
+    private Node remove(Node node, long key, int id) {
+        if (node == null) return null;
+
+        int comparison = compare(key, id, node.key, node.id);
+        if (comparison == 0) {
+            return merge(node.left, node.right);
+        }
+
+        if (comparison < 0) {
+            node.left = remove(node.left, key, id);
+        } else {
+            node.right = remove(node.right, key, id);
+        }
+        return update(node);
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null) return right;
+        if (right == null) return left;
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private int nextPriority() {
+        // xorshift32, plenty random enough to keep the treap balanced
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    private static Node update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int compare(long keyA, int idA, long keyB, int idB) {
+        int comparison = Long.compare(keyA, keyB);
+        return comparison != 0 ? comparison : Integer.compare(idA, idB);
+    }
+
+    private static final class Node {
+        private final int id;
+        private final long key;
+        private final int priority;
+        private int size;
+        private Node left;
+        private Node right;
+
+        private Node(int id, long key, int priority) {
+            this.id = id;
+            this.key = key;
+            this.priority = priority;
+            this.size = 1;
+        }
+    }
+}
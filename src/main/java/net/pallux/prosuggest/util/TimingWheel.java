@@ -0,0 +1,127 @@
+package net.pallux.prosuggest.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: expires keys after a delay counted in wheel ticks.
+ * <p>
+ * Each key sits in the slot its deadline hashes to, in a doubly linked list, so scheduling,
+ * rescheduling and cancelling are O(1). Every tick only the current slot is visited; with at
+ * least as many slots as the usual delay, each entry is looked at about once before it expires.
+ * Not thread-safe.
+ */
+public class TimingWheel<K> {
+
+    private final Entry<K>[] slots;
+    private final int mask;
+    private final Map<K, Entry<K>> entries;
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int slotCount) {
+        int size = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.slots = new Entry[size];
+        this.mask = size - 1;
+        this.entries = new HashMap<>();
+    }
+
+    /**
+     * Expires the key after the given number of ticks, replacing any earlier deadline it had.
+     */
+    public void schedule(K key, long delayTicks) {
+        Entry<K> entry = entries.get(key);
+        if (entry != null) {
+            unlink(entry);
+        } else {
+            entry = new Entry<>(key);
+            entries.put(key, entry);
+        }
+
+        entry.deadline = currentTick + Math.max(1, delayTicks);
+        link(entry);
+    }
+
+    public boolean cancel(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) return false;
+
+        unlink(entry);
+        return true;
+    }
+
+    public boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Moves one tick forward and hands every key whose deadline has come to the consumer, after
+     * removing it. The consumer may schedule or cancel keys.
+     */
+    public void advance(Consumer<K> onExpire) {
+        currentTick++;
+        int slot = (int) (currentTick & mask);
+
+        Entry<K> entry = slots[slot];
+        while (entry != null) {
+            Entry<K> next = entry.next;
+            // Entries of later rotations share the slot and wait for their turn
+            if (entry.deadline <= currentTick) {
+                unlink(entry);
+                entries.remove(entry.key);
+                onExpire.accept(entry.key);
+                // The consumer may have moved the next entry away; start over on this slot then
+                if (next != null && next.slot != slot) {
+                    next = slots[slot];
+                }
+            }
+            entry = next;
+        }
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    private void link(Entry<K> entry) {
+        int slot = (int) (entry.deadline & mask);
+        entry.slot = slot;
+        entry.previous = null;
+        entry.next = slots[slot];
+        if (entry.next != null) {
+            entry.next.previous = entry;
+        }
+        slots[slot] = entry;
+    }
+
+    private void unlink(Entry<K> entry) {
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            slots[entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        }
+        entry.previous = null;
+        entry.next = null;
+        entry.slot = -1;
+    }
+
+    private static final class Entry<K> {
+        private final K key;
+        private long deadline;
+        private int slot = -1;
+        private Entry<K> previous;
+        private Entry<K> next;
+
+        private Entry(K key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package net.pallux.prosuggest.search;
+
+import net.pallux.prosuggest.models.Suggestion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Times index build and query latency of a {@link SearchIndex} over generated suggestions.
+ * <p>
+ * Run from the test classpath: {@code SearchBenchmark [suggestions]}. The data is generated, so
+ * runs are comparable.
+ */
+public class SearchBenchmark {
+
+    private static final String[] WORDS = {
+            "add", "more", "shop", "spawn", "event", "pvp", "arena", "quest", "reward", "rank",
+            "economy", "trade", "market", "auction", "land", "claim", "protection", "build", "contest",
+            "minigame", "parkour", "dungeon", "boss", "pet", "mount", "crate", "key", "vote", "kit",
+            "home", "warp", "teleport", "chat", "channel", "discord", "map", "world", "nether", "end",
+            "farm", "villager", "mob", "spawner", "enchant", "anvil", "repair", "fishing", "mining",
+            "jobs", "skills", "leaderboard", "season", "reset", "holiday", "halloween", "christmas"
+    };
+    private static final String[] QUERIES = {"shop", "pvp arena", "dungeon boss reward", "tele", "s", "nonexistent"};
+    private static final int QUERY_ROUNDS = 200;
+    private static final int DEFAULT_SUGGESTIONS = 50_000;
+
+    private final int suggestionCount;
+
+    public SearchBenchmark(int suggestionCount) {
+        this.suggestionCount = suggestionCount;
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SUGGESTIONS;
+        for (String line : new SearchBenchmark(count).run()) {
+            System.out.println(line);
+        }
+    }
+
+    /**
+     * Runs the benchmark and returns the result lines.
+     */
+    public List<String> run() {
+        Random random = new Random(42);
+        UUID author = new UUID(0, 0);
+        List<Suggestion> generated = new ArrayList<>(suggestionCount);
+        for (int id = 1; id <= suggestionCount; id++) {
+            generated.add(new Suggestion(id, sentence(random, 4), sentence(random, 25), author, "benchmark"));
+        }
+
+        SearchIndex index = new SearchIndex();
+        long start = System.nanoTime();
+        for (Suggestion suggestion : generated) {
+            index.index(suggestion);
+        }
+        long built = System.nanoTime();
+
+        List<String> results = new ArrayList<>();
+        results.add(String.format("search index: built in %.1fms (%d suggestions, %d terms)",
+                (built - start) / 1e6, index.getDocumentCount(), index.getTermCount()));
+
+        for (String query : QUERIES) {
+            int matches = index.search(query, Integer.MAX_VALUE).length;
+            long queryStart = System.nanoTime();
+            for (int round = 0; round < QUERY_ROUNDS; round++) {
+                index.search(query, 45);
+            }
+            long elapsed = System.nanoTime() - queryStart;
+            results.add(String.format("search '%s': %.3fms avg (%d matches)",
+                    query, elapsed / 1e6 / QUERY_ROUNDS, matches));
+        }
+        return results;
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) builder.append(' ');
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,100 @@
+package net.pallux.prosuggest.storage;
+
+import net.pallux.prosuggest.models.Suggestion;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Times a full snapshot save and load of the given suggestions in every snapshot format.
+ * <p>
+ * Run from the test classpath: {@code StorageBenchmark [suggestions]}. The data is generated, with a
+ * few votes per suggestion, and written to a temporary directory that is deleted afterwards.
+ */
+public class StorageBenchmark {
+
+    private static final int DEFAULT_SUGGESTIONS = 10_000;
+    private static final int VOTERS = 500;
+
+    private final File directory;
+    private final Logger logger;
+
+    public StorageBenchmark(File directory, Logger logger) {
+        this.directory = directory;
+        this.logger = logger;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SUGGESTIONS;
+        File directory = Files.createTempDirectory("prosuggest-benchmark").toFile();
+
+        for (String line : new StorageBenchmark(directory, Logger.getLogger("StorageBenchmark")).run(generate(count))) {
+            System.out.println(line);
+        }
+    }
+
+    static List<Suggestion> generate(int count) {
+        Random random = new Random(42);
+        UUID[] voters = new UUID[VOTERS];
+        for (int i = 0; i < voters.length; i++) {
+            voters[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+
+        List<Suggestion> suggestions = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            Suggestion suggestion = new Suggestion(id, "Suggestion " + id,
+                    "Generated description for suggestion number " + id, voters[id % VOTERS], "benchmark");
+            for (int vote = random.nextInt(8); vote > 0; vote--) {
+                suggestion.setVote(voters[random.nextInt(VOTERS)],
+                        random.nextBoolean() ? Suggestion.VoteType.UPVOTE : Suggestion.VoteType.DOWNVOTE);
+            }
+            suggestions.add(suggestion);
+        }
+        return suggestions;
+    }
+
+    /**
+     * Runs the benchmark and returns one result line per format.
+     */
+    public List<String> run(Collection<Suggestion> suggestions) throws IOException {
+        directory.mkdirs();
+        List<String> results = new ArrayList<>();
+
+        FlushMetrics scratch = new FlushMetrics();
+        results.add(measure("yaml", suggestions,
+                new YamlSuggestionStore(new File(directory, "benchmark.yml"), logger, scratch, 0, false)));
+        results.add(measure("binary", suggestions,
+                new BinarySuggestionStore(new File(directory, "benchmark.dat"), logger, scratch, 0, false, false)));
+        results.add(measure("binary+deflate", suggestions,
+                new BinarySuggestionStore(new File(directory, "benchmark.dat.z"), logger, scratch, 0, false, true)));
+
+        File[] leftovers = directory.listFiles();
+        if (leftovers != null) {
+            for (File file : leftovers) {
+                file.delete();
+            }
+        }
+        directory.delete();
+
+        return results;
+    }
+
+    private String measure(String name, Collection<Suggestion> suggestions, JournaledSuggestionStore store)
+            throws IOException {
+        long start = System.nanoTime();
+        store.writeSnapshot(store.file, suggestions);
+        long saved = System.nanoTime();
+        int loaded = store.readSnapshot().size();
+        long end = System.nanoTime();
+
+        return String.format("%s: save %.1fms, load %.1fms, %.1fKB (%d loaded)",
+                name, (saved - start) / 1e6, (end - saved) / 1e6, store.file.length() / 1024.0, loaded);
+    }
+}